@@ -0,0 +1,53 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Exponential back-off until a progress is reported, afterwards the next check is scheduled at the estimated end of the
+ * Test Run. Instances are created with {@link TestRunPollingStrategy#adaptive(Duration, Duration)}.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class AdaptivePollingStrategy implements TestRunPollingStrategy {
+
+    private final long minDelay;
+    private final long maxDelay;
+
+    AdaptivePollingStrategy(final Duration minDelay, final Duration maxDelay) {
+        this.minDelay = Objects.requireNonNull(minDelay, "Minimum delay not set").toMillis();
+        this.maxDelay = Objects.requireNonNull(maxDelay, "Maximum delay not set").toMillis();
+        if (this.minDelay <= 0 || this.maxDelay < this.minDelay) {
+            throw new IllegalArgumentException(
+                    "The minimum delay must be positive and must not be greater than the maximum delay");
+        }
+    }
+
+    @Override
+    public Duration nextCheck(final int checks, final Duration elapsed, final double progress) {
+        if (progress <= 0 || progress >= 1) {
+            // no progress information available yet
+            final long backOff = checks < 32 ? minDelay << checks : maxDelay;
+            return Duration.ofMillis(backOff > 0 ? Math.min(backOff, maxDelay) : maxDelay);
+        }
+        // remaining time, estimated from the average progress rate
+        final long remaining = (long) (elapsed.toMillis() * (1 - progress) / progress);
+        return Duration.ofMillis(Math.max(minDelay, Math.min(remaining, maxDelay)));
+    }
+}
@@ -18,9 +18,11 @@ package de.interactive_instruments.etf.client;
 
 import java.net.Authenticator;
 import java.net.URL;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.time.Duration;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
 
 import de.interactive_instruments.etf.client.internal.EndpointBuilderImpl;
 
@@ -92,6 +94,8 @@ public interface EtfValidatorClient {
      *
      * Example: <code>new DecimalFormat("0.000", new DecimalFormatSymbols(Locale.ENGLISH))</code>
      *
+     * The format is copied when the Endpoint is initialized, later changes of the passed object have no effect.
+     *
      * @since 1.6
      *
      * @param format
@@ -115,4 +119,122 @@ public interface EtfValidatorClient {
      */
     EtfValidatorClient retryOnConnectionReset(java.time.Duration delay, int attempts);
 
+    /**
+     * Configure the HTTP connections that are shared by all requests of the Endpoint. Connections are kept alive and
+     * reused for subsequent requests. By default, at most 64 connections are used concurrently.
+     *
+     * The idle timeout is applied on a best effort basis: the Java HTTP client does not support a timeout per client,
+     * so the Endpoint stops using its idle connections if no request has been sent within the timeout. They are then
+     * closed by the Java HTTP client. JVM-wide settings of the Java HTTP client, like the system property
+     * <code>jdk.httpclient.keepalive.timeout</code>, are not changed.
+     *
+     * @since 1.9
+     *
+     * @param maxConnections
+     *            maximum number of connections that are used concurrently
+     * @param idleTimeout
+     *            time after which an idle connection is closed
+     * @return builder object
+     */
+    EtfValidatorClient connectionPool(final int maxConnections, final Duration idleTimeout);
+
+    /**
+     * Configure when the progress of running Test Runs is checked. By default, the {@link TestRunPollingStrategy#adaptive()
+     * adaptive} strategy is used.
+     *
+     * @since 1.9
+     *
+     * @param pollingStrategy
+     *            strategy that determines the delay between two progress checks
+     * @return builder object
+     */
+    EtfValidatorClient pollingStrategy(final TestRunPollingStrategy pollingStrategy);
+
+    /**
+     * Limit how many log entries of a running Test Run are retained in memory. By default, all log entries are
+     * retained. If a capacity is set, only the most recent entries are returned by {@link TestRun#logEntries()}.
+     *
+     * If a spill directory is set, all log entries are additionally written to a temporary file in this directory, so
+     * that {@link TestRun#logEntries()} returns the complete log while the Test Run is in progress. The file is deleted
+     * when the Test Run has finished or has been canceled, the complete log can then be requested with
+     * {@link TestRunResult#logEntries()}.
+     *
+     * @since 1.9
+     *
+     * @param capacity
+     *            number of log entries that are retained in memory
+     * @param spillDirectory
+     *            directory for the log files or <code>null</code> to retain only the last entries
+     * @return builder object
+     */
+    EtfValidatorClient logBuffer(final int capacity, final Path spillDirectory);
+
+    /**
+     * Configure when the messages and attachments of Test Results are processed. By default, all messages are
+     * translated and all attachments are resolved when the Test Run Result is created.
+     *
+     * In lazy mode, messages are translated and attachments are resolved when they are accessed for the first time.
+     * This reduces the time and memory needed to create large Test Run Results, if only some of the messages are
+     * used. Please note: errors in the translation templates are then reported by
+     * {@link TestResultMessageHolder#messages()} instead of the Test Run.
+     *
+     * @since 1.9
+     *
+     * @param lazy
+     *            true to process messages and attachments on the first access
+     * @return builder object
+     */
+    EtfValidatorClient lazyResults(final boolean lazy);
+
+    /**
+     * Set a directory in which the metadata of the ETF instance, like the Executable Test Suites, are cached across
+     * restarts of the application. A new Endpoint then loads the cached metadata and only revalidates it with the
+     * ETF instance, instead of downloading it again. By default, no cache directory is used.
+     *
+     * The directory can be shared by multiple Endpoints and ETF instances.
+     *
+     * @since 1.9
+     *
+     * @param directory
+     *            cache directory or <code>null</code> to disable the cache
+     * @return builder object
+     */
+    EtfValidatorClient cacheDirectory(final Path directory);
+
+    /**
+     * Configure when the metadata of the ETF instance, like the Executable Test Suites, are revalidated. By default,
+     * the metadata are revalidated with the ETF instance each time they are requested.
+     *
+     * Within the minimum interval, the cached metadata are returned without contacting the ETF instance. In background
+     * mode, the cached metadata are always returned immediately and expired metadata are revalidated asynchronously,
+     * so that requests for metadata do not wait for the network once the metadata have been loaded. Please note: in
+     * background mode, changes on the ETF instance become visible with a delay of at least one request.
+     *
+     * @since 1.9
+     *
+     * @param minInterval
+     *            minimum time between two revalidations
+     * @param background
+     *            true to return cached metadata immediately and revalidate them asynchronously
+     * @return builder object
+     */
+    EtfValidatorClient metadataRefresh(final Duration minInterval, final boolean background);
+
+    /**
+     * Set the pool that is used to translate the messages and resolve the attachments of large Test Run Results in
+     * parallel. The work is split at Test Task, Test Module and Test Case Results. Attachments that are fetched from the
+     * remote instance are resolved in a managed block, so that the pool can compensate for blocked workers. By default,
+     * the common ForkJoinPool is used.
+     *
+     * The results are the same as if they were built sequentially. The pool is not used in
+     * {@link #lazyResults(boolean) lazy mode}.
+     *
+     * @since 1.9
+     *
+     * @param pool
+     *            pool for building results or <code>null</code> to build all results sequentially
+     * @return builder object
+     */
+    EtfValidatorClient resultPool(final ForkJoinPool pool);
+
 }
@@ -35,6 +35,36 @@ public interface EtsCollection extends EtfCollection<ExecutableTestSuite>, TestR
      */
     EtsCollection itemsByTag(final Tag tag);
 
+    /**
+     * Filter by multiple Tags and return the Executable Test Suites that have at least one of the Tags
+     *
+     * @since 1.9
+     *
+     * @param tags
+     *            the Tags to filter the ETS
+     *
+     * @return a filtered EtsCollection
+     *
+     * @throws EtfIllegalArgumentException
+     *             if no Tag is passed
+     */
+    EtsCollection itemsByAnyTag(final Tag... tags);
+
+    /**
+     * Filter by multiple Tags and return the Executable Test Suites that have all of the Tags
+     *
+     * @since 1.9
+     *
+     * @param tags
+     *            the Tags to filter the ETS
+     *
+     * @return a filtered EtsCollection
+     *
+     * @throws EtfIllegalArgumentException
+     *             if no Tag is passed
+     */
+    EtsCollection itemsByAllTags(final Tag... tags);
+
     /**
      * Filter multiple Executable Test Suites by their ID
      *
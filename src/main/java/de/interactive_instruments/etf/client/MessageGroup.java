@@ -0,0 +1,63 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregation of all messages of Test Assertion Results that use the same translation template.
+ *
+ * @see TestRunResult#messageGroups()
+ * @see TestTaskResult#messageGroups()
+ *
+ * @since 1.9
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public interface MessageGroup {
+
+    /**
+     * The reference to the translation template of the messages
+     *
+     * @return translation template name
+     */
+    String templateRef();
+
+    /**
+     * The number of messages that use the translation template
+     *
+     * @return number of occurrences
+     */
+    long count();
+
+    /**
+     * The translation arguments of the first messages, mapped from the token to the value. At most 10 argument sets
+     * are retained.
+     *
+     * @return argument sets in the order of occurrence
+     */
+    List<Map<String, String>> exampleArguments();
+
+    /**
+     * The labels of the Test Assertions that reported the messages
+     *
+     * @return distinct labels in the order of occurrence
+     */
+    Collection<String> assertionLabels();
+}
@@ -108,6 +108,8 @@ public enum ResultStatus {
 
     private final String status;
 
+    private final static ResultStatus[] values = values();
+
     ResultStatus(final String status) {
         this.status = status;
     }
@@ -118,7 +120,30 @@ public enum ResultStatus {
     }
 
     public static ResultStatus fromString(final String status) {
-        for (final ResultStatus s : ResultStatus.values()) {
+        // fast path for the upper case values used by ETF
+        if (status != null) {
+            switch (status) {
+            case "PASSED":
+                return PASSED;
+            case "FAILED":
+                return FAILED;
+            case "SKIPPED":
+                return SKIPPED;
+            case "NOT_APPLICABLE":
+                return NOT_APPLICABLE;
+            case "INFO":
+                return INFO;
+            case "WARNING":
+                return WARNING;
+            case "UNDEFINED":
+                return UNDEFINED;
+            case "PASSED_MANUAL":
+                return PASSED_MANUAL;
+            case "INTERNAL_ERROR":
+                return INTERNAL_ERROR;
+            }
+        }
+        for (final ResultStatus s : values) {
             if (s.status.equalsIgnoreCase(status)) {
                 return s;
             }
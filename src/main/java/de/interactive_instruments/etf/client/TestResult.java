@@ -17,6 +17,8 @@
 package de.interactive_instruments.etf.client;
 
 import java.time.ZonedDateTime;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * The Test Result of an test item
@@ -68,4 +70,27 @@ public interface TestResult extends Iterable<TestResult> {
      * @return duration in milliseconds
      */
     long duration();
+
+    /**
+     * Returns a sequential stream over all sub results in pre-order.
+     *
+     * @since 1.9
+     *
+     * @return stream of results
+     */
+    default Stream<TestResult> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over all sub results. The results are split at Test Task and Test Module Results, so
+     * that filtering large results uses all cores of the common ForkJoinPool.
+     *
+     * @since 1.9
+     *
+     * @return parallel stream of results
+     */
+    default Stream<TestResult> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
@@ -17,6 +17,7 @@
 package de.interactive_instruments.etf.client;
 
 import java.util.Collection;
+import java.util.Locale;
 
 /**
  * An interface for results that posses messages.
@@ -33,4 +34,17 @@ public interface TestResultMessageHolder {
      * @return a collection of messages or an empty collection
      */
     Collection<String> messages();
+
+    /**
+     * Return the messages that occurred during the execution of this item, translated into the language of the passed
+     * locale. English is used as fallback or, if not available, the first language found. The translated messages are
+     * cached per language.
+     *
+     * @since 1.9
+     *
+     * @param locale
+     *            language for messages
+     * @return a collection of messages or an empty collection
+     */
+    Collection<String> messages(final Locale locale);
 }
@@ -0,0 +1,66 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client;
+
+/**
+ * Callback interface for processing the results of a Test Run while the result document is read.
+ *
+ * The Test Results are passed to the visitor in document order and are not retained by the client, so that the
+ * memory that is needed does not depend on the size of the result. Each result is entered before its children are
+ * visited and exited after all its children have been visited. Test Step Results that have been invoked by a Test
+ * Step are visited as children of the invoking Test Step Result.
+ *
+ * The results that are passed to {@link #exit(TestResult)} are complete, except for their children: the collections
+ * of sub results are empty and iterating a result does not return any sub results. The passed objects can be kept by
+ * the visitor, for instance to collect the failed assertions.
+ *
+ * The visitor is called by one thread at a time.
+ *
+ * @see TestRunExecutable#executeAsync(TestObject, RunParameters, TestResultVisitor)
+ *
+ * @since 1.9
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public interface TestResultVisitor {
+
+    /**
+     * Called when a result is entered, before its children are visited.
+     *
+     * @param type
+     *            the type of the result, see {@link TestResult#type()}
+     */
+    default void enter(final String type) {}
+
+    /**
+     * Called after the result and all its children have been visited.
+     *
+     * @param result
+     *            a {@link TestTaskResult}, {@link TestModuleResult}, {@link TestCaseResult}, {@link TestStepResult} or
+     *            {@link TestAssertionResult} without sub results
+     */
+    void exit(final TestResult result);
+
+    /**
+     * Called instead of {@link #exit(TestResult)} for a result that does not reference a Test of the Executable Test
+     * Suite. These results are ignored, as they are in a {@link TestRunResult}.
+     *
+     * @param type
+     *            the type of the result, see {@link TestResult#type()}
+     */
+    default void skip(final String type) {}
+}
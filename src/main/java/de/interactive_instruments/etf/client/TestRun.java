@@ -19,6 +19,7 @@ package de.interactive_instruments.etf.client;
 import java.net.URI;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -46,10 +47,36 @@ public interface TestRun {
     /**
      * The non-blocking call returns the current entries of the log file
      *
+     * If a capacity has been configured for the log buffer, only the most recent entries are returned, unless a spill
+     * directory has been configured and the Test Run is still in progress.
+     *
+     * @see EtfValidatorClient#logBuffer(int, java.nio.file.Path)
+     *
      * @return log file entries
      */
     List<String> logEntries();
 
+    /**
+     * The non-blocking call returns the entries of the log file, starting with the entry at the passed index. The
+     * method can be used to tail the log while the Test Run is in progress.
+     *
+     * @since 1.9
+     *
+     * @param fromIndex
+     *            index of the first entry, i.e. the number of entries that have already been read
+     * @return log file entries, starting with the entry at the passed index or with the oldest retained entry
+     */
+    List<String> logEntries(final long fromIndex);
+
+    /**
+     * Returns the number of log entries that have been received so far.
+     *
+     * @since 1.9
+     *
+     * @return number of received log entries
+     */
+    long logEntryCount();
+
     /**
      * The blocking call waits until the Test Run has finished and finally returns a Test Run Result.
      *
@@ -62,6 +89,18 @@ public interface TestRun {
      */
     TestRunResult result() throws EtfIllegalStateException, ExecutionException;
 
+    /**
+     * The non-blocking call returns a stage that is completed with the Test Run Result when the Test Run has finished.
+     *
+     * The stage is completed exceptionally if an exception occurred during the Test Run or if the Test Run has been
+     * cancelled.
+     *
+     * @since 1.9
+     *
+     * @return stage that completes with the Test Run Result
+     */
+    CompletionStage<TestRunResult> resultAsync();
+
     /**
      * A reference to the test run on the remote ETF instance. It serves as an entry point to retrieve additional
      * information and resource of the test run from the ETF instance, like the test report in an HTML format.
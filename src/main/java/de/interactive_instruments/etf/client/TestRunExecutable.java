@@ -16,6 +16,8 @@
  */
 package de.interactive_instruments.etf.client;
 
+import java.util.concurrent.CompletionStage;
+
 /**
  * Represents objects that can execute Test Runs
  *
@@ -137,6 +139,69 @@ public interface TestRunExecutable {
             throws RemoteInvocationException, IncompatibleTestObjectTypesException, EtfIllegalStateException,
             TestRunParameterException;
 
+    /**
+     * Start a new Test Run without blocking the calling thread.
+     *
+     * The Test Run is started and monitored asynchronously. The returned stage is completed with the Test Run Result
+     * when the Test Run has finished, so that multiple Test Runs can be composed without waiting for each result.
+     * Cancelling the future returned by {@link CompletionStage#toCompletableFuture()} stops the monitoring and deletes
+     * the Test Run on the ETF instance.
+     *
+     * @since 1.9
+     *
+     * @param testObject
+     *            the Test Object to use
+     * @param runParameters
+     *            the Parameters for the Test Run
+     *
+     * @return a stage that is completed with the Test Run Result or exceptionally with a
+     *         {@link RemoteInvocationException} if the ETF instance returned an error
+     *
+     * @throws IncompatibleTestObjectTypesException
+     *             when the Test Object Type and the types supported by the ETS are incompatible
+     * @throws EtfIllegalStateException
+     *             when the method is invoked on an empty ETS collection or the connection to the remote instance has been
+     *             closed
+     * @throws TestRunParameterException
+     *             if a parameter-related error occurred
+     */
+    default CompletionStage<TestRunResult> executeAsync(final TestObject testObject, final RunParameters runParameters)
+            throws IncompatibleTestObjectTypesException, EtfIllegalStateException, TestRunParameterException {
+        return executeAsync(testObject, runParameters, null);
+    }
+
+    /**
+     * Start a new Test Run without blocking the calling thread and pass the results to a visitor.
+     *
+     * Instead of building the complete result tree, the Test Results are passed to the visitor while the result
+     * document is read and are not retained. The returned Test Run Result therefore does not contain any Test Task
+     * Results, but can be used to query the log and to delete the report. The Test Run can be cancelled like a Test
+     * Run started with {@link #executeAsync(TestObject, RunParameters)}.
+     *
+     * @since 1.9
+     *
+     * @param testObject
+     *            the Test Object to use
+     * @param runParameters
+     *            the Parameters for the Test Run
+     * @param visitor
+     *            the visitor that is called for each result or <code>null</code> to build the complete Test Run Result
+     *
+     * @return a stage that is completed when all results have been visited or exceptionally with a
+     *         {@link RemoteInvocationException} if the ETF instance returned an error
+     *
+     * @throws IncompatibleTestObjectTypesException
+     *             when the Test Object Type and the types supported by the ETS are incompatible
+     * @throws EtfIllegalStateException
+     *             when the method is invoked on an empty ETS collection or the connection to the remote instance has been
+     *             closed
+     * @throws TestRunParameterException
+     *             if a parameter-related error occurred
+     */
+    CompletionStage<TestRunResult> executeAsync(final TestObject testObject, final RunParameters runParameters,
+            final TestResultVisitor visitor)
+            throws IncompatibleTestObjectTypesException, EtfIllegalStateException, TestRunParameterException;
+
     /**
      * Get applicable Run Parameters
      *
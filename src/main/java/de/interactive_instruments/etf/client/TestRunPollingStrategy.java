@@ -0,0 +1,82 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client;
+
+import java.time.Duration;
+
+/**
+ * Determines when the progress of a running Test Run is checked next.
+ *
+ * @see EtfValidatorClient#pollingStrategy(TestRunPollingStrategy)
+ *
+ * @since 1.9
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+@FunctionalInterface
+public interface TestRunPollingStrategy {
+
+    /**
+     * Returns the delay until the next progress check.
+     *
+     * @param checks
+     *            number of progress checks that have been made since the progress last changed
+     * @param elapsed
+     *            time that has passed since the Test Run has been started
+     * @param progress
+     *            the last reported progress in the [0.0,1.0] interval
+     * @return delay until the next check
+     */
+    Duration nextCheck(final int checks, final Duration elapsed, final double progress);
+
+    /**
+     * The default strategy, which starts with checks in short intervals and backs off exponentially. As soon as the Test
+     * Run reports a progress, the remaining time is estimated from the progress rate and the next check is scheduled
+     * near the expected completion. The delay is always kept between 250 milliseconds and one minute.
+     *
+     * @return adaptive strategy
+     */
+    static TestRunPollingStrategy adaptive() {
+        return new AdaptivePollingStrategy(Duration.ofMillis(250), Duration.ofMinutes(1));
+    }
+
+    /**
+     * Adaptive strategy with custom bounds for the delay.
+     *
+     * @see #adaptive()
+     *
+     * @param minDelay
+     *            minimum delay between two checks
+     * @param maxDelay
+     *            maximum delay between two checks
+     * @return adaptive strategy
+     */
+    static TestRunPollingStrategy adaptive(final Duration minDelay, final Duration maxDelay) {
+        return new AdaptivePollingStrategy(minDelay, maxDelay);
+    }
+
+    /**
+     * Strategy that checks the progress in fixed intervals.
+     *
+     * @param delay
+     *            delay between two checks
+     * @return fixed strategy
+     */
+    static TestRunPollingStrategy fixed(final Duration delay) {
+        return (checks, elapsed, progress) -> delay;
+    }
+}
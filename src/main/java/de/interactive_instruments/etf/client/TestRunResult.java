@@ -19,6 +19,8 @@ package de.interactive_instruments.etf.client;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A Test Run Result represents the execution of one or multiple ETS against one Test Object.
@@ -56,6 +58,16 @@ public interface TestRunResult extends Iterable<TestResult> {
 
     Collection<TestTaskResult> testTaskResults();
 
+    /**
+     * The messages of all Test Assertion Results of this Test Run grouped by their translation template. The groups are
+     * created while the result is read, so that no traversal of the results is needed.
+     *
+     * @since 1.9
+     *
+     * @return message groups in the order of the first occurrence
+     */
+    Collection<MessageGroup> messageGroups();
+
     /**
      * Delete the report from the remote ETF instance.
      *
@@ -63,4 +75,27 @@ public interface TestRunResult extends Iterable<TestResult> {
      *             if the ETF instance returned an error
      */
     void delete() throws RemoteInvocationException;
+
+    /**
+     * Returns a sequential stream over all results of the Test Run in pre-order.
+     *
+     * @since 1.9
+     *
+     * @return stream of results
+     */
+    default Stream<TestResult> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a parallel stream over all results of the Test Run. The results are split at Test Task and Test Module Results, so
+     * that filtering large results uses all cores of the common ForkJoinPool.
+     *
+     * @since 1.9
+     *
+     * @return parallel stream of results
+     */
+    default Stream<TestResult> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
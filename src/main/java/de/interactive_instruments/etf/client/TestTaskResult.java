@@ -49,4 +49,14 @@ public interface TestTaskResult extends TestResult {
      * @return Executable Test Suite ID
      */
     String executableTestSuiteEid();
+
+    /**
+     * The messages of all Test Assertion Results of this Test Task grouped by their translation template. The groups are
+     * created while the result is read, so that no traversal of the results is needed.
+     *
+     * @since 1.9
+     *
+     * @return message groups in the order of the first occurrence
+     */
+    Collection<MessageGroup> messageGroups();
 }
@@ -31,17 +31,29 @@ abstract class AbstractEtfCollection<V extends ItemMetadata> implements EtfColle
 
     protected final Map<String, V> items;
     protected final InstanceCtx ctx;
+    // label to item, created when all items have been added
+    private volatile Map<String, V> labelIndex;
 
     protected AbstractEtfCollection(final InstanceCtx ctx, final JSONArray jsonArray) {
         this.ctx = ctx;
         items = new HashMap<>();
         initChildren(jsonArray);
+        indexLabels();
     }
 
     protected AbstractEtfCollection(final Collection<JSONObject> jsonObjects, final InstanceCtx ctx) {
         this.ctx = ctx;
         items = new HashMap<>();
         initChildren(jsonObjects);
+        indexLabels();
+    }
+
+    protected AbstractEtfCollection(final Collection<JSONObject> jsonObjects, final InstanceCtx ctx,
+            final AbstractEtfCollection<V> previous) {
+        this.ctx = ctx;
+        items = new HashMap<>();
+        initChildren(jsonObjects, previous);
+        indexLabels();
     }
 
     protected AbstractEtfCollection(final InstanceCtx ctx, final Collection<V> items) {
@@ -50,8 +62,13 @@ abstract class AbstractEtfCollection<V extends ItemMetadata> implements EtfColle
         for (final V item : items) {
             this.items.put(item.eid(), item);
         }
+        indexLabels();
     }
 
+    /**
+     * Creates an empty collection. The subclass must add the items with one of the initChildren() methods and then
+     * call {@link #indexLabels()}.
+     */
     protected AbstractEtfCollection(final InstanceCtx ctx) {
         this.ctx = ctx;
         items = new HashMap<>();
@@ -72,8 +89,55 @@ abstract class AbstractEtfCollection<V extends ItemMetadata> implements EtfColle
         }
     }
 
+    /**
+     * Prepares the items, but reuses the items of a previous collection that have the same EID and version. Items
+     * without version are always prepared again.
+     *
+     * @param previous
+     *            the collection that is replaced or null
+     */
+    protected void initChildren(final Collection<JSONObject> jsonObjects, final AbstractEtfCollection<V> previous) {
+        for (final JSONObject jsonObject : jsonObjects) {
+            final V previousItem = previous != null ? previous.items.get(jsonObject.getString("id")) : null;
+            final V preparedObject;
+            if (previousItem != null && unchanged(previousItem, jsonObject) && reuse(previousItem)) {
+                preparedObject = previousItem;
+            } else {
+                preparedObject = doPrepare(jsonObject);
+            }
+            items.put(preparedObject.eid(), preparedObject);
+        }
+    }
+
+    private static boolean unchanged(final ItemMetadata item, final JSONObject jsonObject) {
+        final Optional<String> version = item.version();
+        return version.isPresent() && !jsonObject.isNull("version")
+                && version.get().equals(jsonObject.optString("version", null));
+    }
+
+    /**
+     * Called for an unchanged item of the previous collection, before it is added to this collection.
+     *
+     * @return false if the item depends on changed items and must be prepared again
+     */
+    boolean reuse(final V item) {
+        return true;
+    }
+
     abstract V doPrepare(final JSONObject object);
 
+    /**
+     * Creates the label index, after all items have been added. If several items have the same label, the first one
+     * is used.
+     */
+    protected final void indexLabels() {
+        final Map<String, V> index = new HashMap<>();
+        for (final V item : items.values()) {
+            index.putIfAbsent(item.label(), item);
+        }
+        labelIndex = Collections.unmodifiableMap(index);
+    }
+
     @Override
     final public Collection<? extends ItemMetadata> metadata() {
         return items.values();
@@ -86,12 +150,7 @@ abstract class AbstractEtfCollection<V extends ItemMetadata> implements EtfColle
 
     @Override
     public Optional<V> itemByLabel(final String label) {
-        for (final V item : items.values()) {
-            if (item.label().equals(label)) {
-                return Optional.of(item);
-            }
-        }
-        return Optional.empty();
+        return Optional.ofNullable(labelIndex.get(label));
     }
 
     @Override
@@ -16,218 +16,244 @@
  */
 package de.interactive_instruments.etf.client.internal;
 
-import java.net.URI;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
-
-import org.json.JSONObject;
 
 import de.interactive_instruments.etf.client.ExecutableTestSuite;
-import de.interactive_instruments.etf.client.RemoteInvocationException;
+import de.interactive_instruments.etf.client.ReferenceError;
 import de.interactive_instruments.etf.client.ResultStatus;
 import de.interactive_instruments.etf.client.TestResult;
 
 /**
+ * Flyweight for a result in a {@link ResultStore}.
+ *
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
 abstract class AbstractResult implements TestResult {
 
-    private final String label;
-    private final String description;
-    private final ResultStatus status;
-    private final ZonedDateTime startDate;
-    private final long duration;
-    protected final ResultCtx resultCtx;
+    protected final ResultStore store;
+    protected final int index;
 
     static class ResultCtx {
         final InstanceCtx ctx;
         private final ExecutableTestSuiteImpl ets;
-        final JSONObject jsonObj;
-        private final EidObjectMapping attachmentMappings;
 
         ResultCtx(final InstanceCtx ctx, final ExecutableTestSuite ets) {
             this.ctx = ctx;
             this.ets = (ExecutableTestSuiteImpl) ets;
-            this.jsonObj = null;
-            attachmentMappings = null;
-        }
-
-        private ResultCtx(final ResultCtx other, final JSONObject jsonObj) {
-            this.ctx = other.ctx;
-            this.ets = other.ets;
-            this.jsonObj = jsonObj;
-            attachmentMappings = other.attachmentMappings;
         }
 
-        public ResultCtx(final ResultCtx other, final EidObjectMapping attachmentMappings) {
-            this.ctx = other.ctx;
-            this.ets = other.ets;
-            this.jsonObj = other.jsonObj;
-            this.attachmentMappings = attachmentMappings;
-        }
-
-        ResultCtx withAttachments() {
-            final EidObjectMappingBuilder mappingBuilder = new EidObjectMappingBuilder();
-            if (!this.jsonObj.isNull("attachments")) {
-                final Collection<JSONObject> attachments = new JSONObjectOrArray(
-                        this.jsonObj.getJSONObject("attachments")).get("Attachment");
-                for (final JSONObject attachment : attachments) {
-                    mappingBuilder.add(attachment);
+        /**
+         * Creates an immutable index of the result contexts by ETS EID, that is shared by all Test Runs started from
+         * the same collection.
+         *
+         * @param previous
+         *            index of the replaced collection, contexts of unchanged ETS are reused
+         */
+        static Map<String, ResultCtx> index(final InstanceCtx ctx,
+                final Iterable<ExecutableTestSuite> executableTestSuites, final Map<String, ResultCtx> previous) {
+            final Map<String, ResultCtx> index = new HashMap<>();
+            for (final ExecutableTestSuite executableTestSuite : executableTestSuites) {
+                final ResultCtx previousCtx = previous.get(executableTestSuite.eid());
+                if (previousCtx != null && previousCtx.ets == executableTestSuite) {
+                    index.put(executableTestSuite.eid(), previousCtx);
+                } else {
+                    index.put(executableTestSuite.eid(), new ResultCtx(ctx, executableTestSuite));
                 }
             }
-            return new ResultCtx(this, mappingBuilder.build());
+            return Collections.unmodifiableMap(index);
         }
 
-        ResultCtx newChild(final JSONObject childObject) {
-            return new ResultCtx(this, childObject);
+        String translate(final String language, final ResultMessage message) {
+            return ets.translate(language, message);
         }
 
-        String translate(final JSONObject messageJson) {
-            return ets.translate(ctx.locale, messageJson);
-        }
-
-        EidObjectMapping attachmentMappings() {
-            return attachmentMappings;
-        }
-
-        EidObjectMapping etsMappings() {
-            return ets.objectMapping();
-        }
-    }
-
-    protected AbstractResult(final ResultCtx resultCtx) {
-        this.resultCtx = resultCtx;
-        final String eidRef = this.resultCtx.jsonObj.getJSONObject("resultedFrom").getString("ref");
-        final JSONObject etsItem = this.resultCtx.etsMappings().resolve(eidRef);
-        this.label = etsItem.getString("label");
-        this.description = etsItem.isNull("description") ? "" : etsItem.getString("description");
-        this.status = ResultStatus.fromString(this.resultCtx.jsonObj.getString("status"));
-        this.startDate = ZonedDateTime.from(
-                DateTimeFormatter.ISO_DATE_TIME.parse(
-                        this.resultCtx.jsonObj.getString("startTimestamp")));
-        this.duration = this.resultCtx.jsonObj.getLong("duration");
-    }
-
-    protected Collection<? extends TestResult> createChildren(final JSONObject jsonObj, final String name,
-            final String childrenName) {
-        if (jsonObj.isNull(name)) {
+        /**
+         * Translates the messages of a result
+         *
+         * @param language
+         *            ISO 639 language code
+         * @param id
+         *            ID of the result, used in the error message
+         * @throws ReferenceError
+         *             if one of multiple messages can not be translated
+         */
+        Collection<String> translate(final String language, final String id,
+                final List<ResultMessage> resultMessages) {
+            if (resultMessages.size() > 1) {
+                final List<String> messages = new ArrayList<>(resultMessages.size());
+                for (final ResultMessage resultMessage : resultMessages) {
+                    final String m = translate(language, resultMessage);
+                    if (m != null && !m.equals("")) {
+                        messages.add(m);
+                    } else {
+                        throw new ReferenceError("Internal error in Executable Test Suite: no error translation provided."
+                                + " Contact the Test Developer. REF: "
+                                + (resultMessage.ref() != null ? resultMessage.ref() : "unknown")
+                                + " ID: "
+                                + (id != null ? id : "unknown"));
+                    }
+                }
+                return Collections.unmodifiableList(messages);
+            } else if (resultMessages.size() == 1) {
+                return Collections.singletonList(translate(language, resultMessages.get(0)));
+            }
             return Collections.emptyList();
         }
-        final Collection<JSONObject> childCollection = new JSONObjectOrArray(jsonObj.getJSONObject(name)).get(childrenName);
-        return childCollection.stream()
-                .filter(child -> !child.isNull("resultedFrom") && !child.getJSONObject("resultedFrom").isNull("ref"))
-                .map(this::doCreateChild)
-                .collect(Collectors.toCollection(() -> new ArrayList<>(childCollection.size())));
-    }
 
-    private void addAttachment(final Map<String, String> attachmentMap, final JSONObject jsonObj) {
-        final String attachmentLabel = jsonObj.getString("label");
-        if (!jsonObj.isNull("embeddedData")) {
-            final String decodedStr = new String(Base64.getDecoder().decode(jsonObj.getString("embeddedData")));
-            attachmentMap.put(attachmentLabel, decodedStr);
-        } else if (!jsonObj.isNull("referencedData")) {
-            final String mimeType = jsonObj.getString("mimeType");
-            final String ref = jsonObj.getJSONObject("referencedData").getString("href");
-            if ("text/plain".equals(mimeType)) {
-                final URI uri = URI.create(ref);
-                try {
-                    final String value = new SimpleGetRequest(uri, this.resultCtx.ctx).query();
-                    attachmentMap.put(label, value);
-                } catch (RemoteInvocationException e) {
-                    attachmentMap.put(label, ref);
-                }
-            } else {
-                attachmentMap.put(label, ref);
-            }
+        EidIndex etsMappings() {
+            return ets.eidIndex();
         }
     }
 
-    protected Map<String, String> createAttachments(final JSONObject jsonObj) {
-        if (!jsonObj.isNull("attachments")) {
-            final Collection<JSONObject> attachmentObjects = new JSONObjectOrArray(
-                    jsonObj.getJSONObject("attachments")).get("attachment");
-            final Map<String, String> attachments = new HashMap<>();
-            for (final JSONObject attachment : attachmentObjects) {
-                final String ref = attachment.getString("ref");
-                final JSONObject attachmentJson = this.resultCtx.attachmentMappings().resolve(ref);
-                addAttachment(attachments, attachmentJson);
-            }
-            return Collections.unmodifiableMap(attachments);
-        } else {
-            return Collections.emptyMap();
-        }
+    protected AbstractResult(final ResultStore store, final int index) {
+        this.store = store;
+        this.index = index;
     }
 
     public String label() {
-        return label;
+        return store.label(index);
     }
 
     @Override
     final public String description() {
-        return description;
+        return store.description(index);
     }
 
     final public ResultStatus resultStatus() {
-        return status;
+        return store.status(index);
     }
 
-    abstract TestResult doCreateChild(final JSONObject child);
-
     @Override
     final public ZonedDateTime startDate() {
-        return startDate;
+        return store.startDate(index);
     }
 
     final public long duration() {
-        return duration;
+        return store.duration(index);
     }
 
+    /**
+     * Pre-order iterator over the results of a store, that uses an explicit stack instead of nested iterators.
+     *
+     * The iterator is initialized with traversal entries: a non-negative entry is the index of a result whose subtree
+     * is traversed, a negative entry <code>~index</code> denotes a single result without its subtree. Results with
+     * the label IGNORE are skipped, but their sub results are traversed.
+     */
     final static class TestResultIterator implements Iterator<TestResult> {
 
-        private final Iterator<? extends TestResult> mainIt;
-        private Iterator<? extends TestResult> currentItChild;
-        private TestResult next;
+        private final ResultStore store;
+        // pending entries, the top entry is visited next
+        private int[] stack;
+        private int top;
+        private int next = -1;
+
+        TestResultIterator(final ResultStore store, final int[] entries, final int from, final int to) {
+            this.store = store;
+            this.stack = new int[Math.max(16, to - from)];
+            for (int i = to - 1; i >= from; i--) {
+                stack[top++] = entries[i];
+            }
+        }
+
+        /**
+         * Creates an iterator over the subtrees of the results
+         */
+        static TestResultIterator of(final List<? extends TestResult> results) {
+            if (results.isEmpty()) {
+                return new TestResultIterator(null, new int[0], 0, 0);
+            }
+            final int[] entries = indices(results);
+            return new TestResultIterator(((AbstractResult) results.get(0)).store, entries, 0, entries.length);
+        }
 
-        TestResultIterator(final Iterator<? extends TestResult> it) {
-            this.mainIt = it;
+        private void push(final int entry) {
+            if (top == stack.length) {
+                stack = Arrays.copyOf(stack, top * 2);
+            }
+            stack[top++] = entry;
         }
 
-        @Override
-        public boolean hasNext() {
-            this.next = null;
-            if (this.currentItChild != null) {
-                if (this.currentItChild.hasNext()) {
-                    next = this.currentItChild.next();
-                    return true;
+        private void advance() {
+            while (top > 0) {
+                final int entry = stack[--top];
+                final int resultIndex;
+                if (entry < 0) {
+                    resultIndex = ~entry;
                 } else {
-                    this.currentItChild = null;
+                    resultIndex = entry;
+                    for (int i = store.childCount(resultIndex) - 1; i >= 0; i--) {
+                        push(store.child(resultIndex, i));
+                    }
+                }
+                // the label in the store is already replaced by a relabel attachment
+                if (!"IGNORE".equals(store.label(resultIndex))) {
+                    next = resultIndex;
+                    return;
                 }
             }
+        }
 
-            if (this.mainIt.hasNext()) {
-                next = this.mainIt.next();
-                this.currentItChild = new TestResultIterator(
-                        ((AbstractResult) next).children().iterator());
-                return true;
+        @Override
+        public boolean hasNext() {
+            if (next == -1) {
+                advance();
             }
-            return false;
+            return next != -1;
         }
 
         @Override
         public TestResult next() {
-            if ("IGNORE".equals(this.next.label()) && hasNext()) {
-                return next();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
             }
-            return this.next;
+            final TestResult result = store.result(next);
+            next = -1;
+            return result;
         }
     }
 
-    abstract Iterable<? extends TestResult> children();
+    static int[] indices(final List<? extends TestResult> results) {
+        final int[] indices = new int[results.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = ((AbstractResult) results.get(i)).index;
+        }
+        return indices;
+    }
+
+    private int[] childIndices() {
+        final int[] childIndices = new int[store.childCount(index)];
+        for (int i = 0; i < childIndices.length; i++) {
+            childIndices[i] = store.child(index, i);
+        }
+        return childIndices;
+    }
 
     @Override
     public final Iterator<TestResult> iterator() {
-        return new TestResultIterator(children().iterator());
+        final int[] childIndices = childIndices();
+        return new TestResultIterator(store, childIndices, 0, childIndices.length);
+    }
+
+    @Override
+    public final Spliterator<TestResult> spliterator() {
+        return new TestResultSpliterator(store, childIndices());
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AbstractResult)) {
+            return false;
+        }
+        final AbstractResult other = (AbstractResult) o;
+        return index == other.index && store == other.store;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(store) + index;
     }
 }
@@ -16,14 +16,9 @@
  */
 package de.interactive_instruments.etf.client.internal;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.Locale;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import de.interactive_instruments.etf.client.ReferenceError;
 import de.interactive_instruments.etf.client.TestResultMessageHolder;
 
 /**
@@ -31,40 +26,17 @@ import de.interactive_instruments.etf.client.TestResultMessageHolder;
  */
 abstract class AbstractTestResultMessageHolder extends AbstractResult implements TestResultMessageHolder {
 
-    private final Collection<String> messages;
-
-    protected AbstractTestResultMessageHolder(final ResultCtx resultCtx) {
-        super(resultCtx);
-        if (resultCtx.jsonObj.has("messages")) {
-            final Object childrenJson = resultCtx.jsonObj.getJSONObject("messages").get("message");
-            if (childrenJson instanceof JSONArray) {
-                final JSONArray childrenArray = (JSONArray) childrenJson;
-                final Collection<String> messages = new ArrayList<>(((JSONArray) childrenJson).length());
-                for (final Object o : childrenArray) {
-                    final String m = resultCtx.translate((JSONObject) o);
-                    if (m != null && !m.equals("")) {
-                        messages.add(m);
-                    } else {
-                        throw new ReferenceError("Internal error in Executable Test Suite: no error translation provided."
-                                + " Contact the Test Developer. REF: "
-                                + ((JSONObject) o).optString("ref", "unknown")
-                                + " ID: "
-                                + resultCtx.jsonObj.optString("id", "unknown"));
-                    }
-                }
-                this.messages = Collections.unmodifiableCollection(messages);
-            } else if (childrenJson instanceof JSONObject) {
-                this.messages = Collections.singleton(resultCtx.translate((JSONObject) childrenJson));
-            } else {
-                this.messages = Collections.emptyList();
-            }
-        } else {
-            this.messages = Collections.emptyList();
-        }
+    protected AbstractTestResultMessageHolder(final ResultStore store, final int index) {
+        super(store, index);
     }
 
     @Override
     public Collection<String> messages() {
-        return this.messages;
+        return store.messages(index);
+    }
+
+    @Override
+    public Collection<String> messages(final Locale locale) {
+        return store.messages(index, locale);
     }
 }
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.interactive_instruments.etf.client.EtfIllegalStateException;
+import de.interactive_instruments.etf.client.RemoteInvocationException;
+
+/**
+ * Holds the cached collection of a collection command and decides when it is revalidated with the ETF instance.
+ *
+ * By default, the collection is revalidated on each access. Within the minimum refresh interval, the cached
+ * collection is returned without revalidation. In background mode, the cached collection is always returned
+ * immediately and an expired collection is revalidated asynchronously (stale-while-revalidate).
+ *
+ * Concurrent refreshes are deduplicated: only one background refresh runs at a time, and threads that waited for a
+ * blocking refresh of another thread use its result.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class CollectionCache<T> {
+
+    private final static Logger logger = LoggerFactory.getLogger(CollectionCache.class);
+
+    @FunctionalInterface
+    interface Loader<T> {
+
+        /**
+         * Revalidates the cached collection
+         *
+         * @param cached
+         *            the cached collection or null
+         * @return the new or the passed collection
+         */
+        T load(final T cached) throws RemoteInvocationException;
+    }
+
+    private final InstanceCtx ctx;
+    private final long minIntervalNanos;
+    private final boolean background;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile T value;
+    // System.nanoTime() of the last revalidation, 0 if never validated
+    private volatile long validated;
+
+    CollectionCache(final InstanceCtx ctx) {
+        this.ctx = ctx;
+        this.minIntervalNanos = ctx.metadataRefreshInterval.toNanos();
+        this.background = ctx.metadataBackgroundRefresh;
+    }
+
+    T get(final Loader<T> loader) throws RemoteInvocationException {
+        final T current = value;
+        final long lastValidation = validated;
+        if (current != null) {
+            if (minIntervalNanos > 0 && System.nanoTime() - lastValidation < minIntervalNanos) {
+                return current;
+            }
+            if (background) {
+                refreshAsync(loader);
+                return current;
+            }
+        }
+        return refresh(loader, lastValidation);
+    }
+
+    private synchronized T refresh(final Loader<T> loader, final long lastValidation) throws RemoteInvocationException {
+        final T current = value;
+        if (current != null && validated != lastValidation) {
+            // refreshed by another thread while waiting for the lock
+            return current;
+        }
+        final T loaded = loader.load(current);
+        value = loaded;
+        validated = System.nanoTime();
+        return loaded;
+    }
+
+    private void refreshAsync(final Loader<T> loader) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        final long lastValidation = validated;
+        try {
+            ctx.executor().execute(() -> {
+                try {
+                    refresh(loader, lastValidation);
+                } catch (final RemoteInvocationException | RuntimeException e) {
+                    logger.warn("Refreshing metadata in the background failed", e);
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (final RejectedExecutionException | EtfIllegalStateException e) {
+            refreshing.set(false);
+        }
+    }
+}
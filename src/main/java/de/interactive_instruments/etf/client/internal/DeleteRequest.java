@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
 
 import de.interactive_instruments.etf.client.RemoteInvocationException;
 
@@ -35,7 +36,7 @@ class DeleteRequest extends Request {
     }
 
     void delete() throws RemoteInvocationException {
-        final HttpRequest request = this.requestBuilder.method("DELETE", noBody()).build();
+        final HttpRequest request = this.requestBuilder.copy().method("DELETE", noBody()).build();
         int attempts = retryAttempts;
         while (true) {
             try {
@@ -50,4 +51,9 @@ class DeleteRequest extends Request {
             }
         }
     }
+
+    CompletableFuture<Void> deleteAsync() {
+        final HttpRequest request = this.requestBuilder.copy().method("DELETE", noBody()).build();
+        return sendAsync(request, HttpResponse.BodyHandlers.discarding(), 204).thenApply(response -> null);
+    }
 }
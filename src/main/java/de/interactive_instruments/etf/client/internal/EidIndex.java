@@ -0,0 +1,119 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+
+/**
+ * Read-only index of the items of an Executable Test Suite, that only keeps the properties used by the results.
+ *
+ * The EIDs are stored in an open-addressing hash table with linear probing, that maps them to the position of the
+ * item in the parallel label and description arrays.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class EidIndex {
+
+    private final String[] keys;
+    private final int[] positions;
+    private final int mask;
+    private final String[] labels;
+    private final String[] descriptions;
+
+    static final class Builder {
+        private final List<String> eids = new ArrayList<>();
+        private final List<String> labels = new ArrayList<>();
+        private final List<String> descriptions = new ArrayList<>();
+
+        Builder add(final JSONObject item) {
+            eids.add(item.getString("id"));
+            labels.add(item.getString("label"));
+            descriptions.add(item.isNull("description") ? "" : item.getString("description"));
+            return this;
+        }
+
+        EidIndex build() {
+            return new EidIndex(this);
+        }
+    }
+
+    private EidIndex(final Builder builder) {
+        final int size = builder.eids.size();
+        // load factor of at most 0.5
+        final int capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1) << 1;
+        this.keys = new String[capacity];
+        this.positions = new int[capacity];
+        this.mask = capacity - 1;
+        this.labels = builder.labels.toArray(new String[0]);
+        this.descriptions = builder.descriptions.toArray(new String[0]);
+        for (int i = 0; i < size; i++) {
+            final String eid = builder.eids.get(i);
+            int slot = slot(eid);
+            while (keys[slot] != null && !keys[slot].equals(eid)) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = eid;
+            positions[slot] = i;
+        }
+    }
+
+    private int slot(final String eid) {
+        final int h = eid.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int indexOf(final String eid) {
+        int slot = slot(eid);
+        String key;
+        while ((key = keys[slot]) != null) {
+            if (key.equals(eid)) {
+                return positions[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    boolean contains(final String eid) {
+        return indexOf(eid) != -1;
+    }
+
+    /**
+     * Returns the position of an item, that is passed to {@link #label(int)} and {@link #description(int)}
+     *
+     * @throws NullPointerException
+     *             if the item does not exist
+     */
+    int resolve(final String eid) {
+        final int position = indexOf(eid);
+        if (position == -1) {
+            throw new NullPointerException("Object with EID " + eid + " not found");
+        }
+        return position;
+    }
+
+    String label(final int position) {
+        return labels[position];
+    }
+
+    String description(final int position) {
+        return descriptions[position];
+    }
+}
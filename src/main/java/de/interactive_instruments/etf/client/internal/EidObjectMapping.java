@@ -1,38 +0,0 @@
-/**
- * Copyright 2019-2022 interactive instruments GmbH
- *
- * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
- * the European Commission - subsequent versions of the EUPL (the "Licence");
- * You may not use this work except in compliance with the Licence.
- * You may obtain a copy of the Licence at:
- *
- * https://joinup.ec.europa.eu/software/page/eupl
- *
- * Unless required by applicable law or agreed to in writing, software
- * distributed under the Licence is distributed on an "AS IS" basis,
- * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
- * See the Licence for the specific language governing permissions and
- * limitations under the Licence.
- */
-package de.interactive_instruments.etf.client.internal;
-
-import java.util.Map;
-import java.util.Objects;
-
-import org.json.JSONObject;
-
-/**
- * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
- */
-final class EidObjectMapping {
-
-    private final Map<String, JSONObject> idObjMap;
-
-    EidObjectMapping(final Map<String, JSONObject> idObjMap) {
-        this.idObjMap = idObjMap;
-    }
-
-    JSONObject resolve(final String eid) {
-        return Objects.requireNonNull(idObjMap.get(eid), "Object with EID " + eid + " not found");
-    }
-}
@@ -18,16 +18,19 @@ package de.interactive_instruments.etf.client.internal;
 
 import java.net.Authenticator;
 import java.net.URL;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 import de.interactive_instruments.etf.client.EtfEndpoint;
 import de.interactive_instruments.etf.client.EtfValidatorClient;
 import de.interactive_instruments.etf.client.EtfValidatorClientWithExecutorService;
+import de.interactive_instruments.etf.client.TestRunPollingStrategy;
 
 /**
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
@@ -43,6 +46,16 @@ final public class EndpointBuilderImpl implements EtfValidatorClientWithExecutor
     private ExecutorService executorService = null;
     private Duration retryDelay = Duration.ofSeconds(0);
     private int retryAttempts = 0;
+    private int maxConnections = 64;
+    private Duration connectionIdleTimeout = null;
+    private TestRunPollingStrategy pollingStrategy = TestRunPollingStrategy.adaptive();
+    private int logBufferCapacity = Integer.MAX_VALUE;
+    private Path logSpillDirectory = null;
+    private boolean lazyResults = false;
+    private Path metadataCacheDirectory = null;
+    private Duration metadataRefreshInterval = Duration.ZERO;
+    private boolean metadataBackgroundRefresh = false;
+    private ForkJoinPool resultPool = ForkJoinPool.commonPool();
 
     @Override
     public EtfValidatorClient url(final URL url) {
@@ -85,7 +98,10 @@ final public class EndpointBuilderImpl implements EtfValidatorClientWithExecutor
         Objects.requireNonNull(this.url, "URL not set");
         Objects.requireNonNull(this.locale, "Locale not set");
         return new EndpointImpl(executorService, this.url, this.locale, this.auth, this.timeout,
-                this.floatFormat, this.retryDelay, this.retryAttempts);
+                this.floatFormat, this.retryDelay, this.retryAttempts, this.maxConnections,
+                this.connectionIdleTimeout, this.pollingStrategy, this.logBufferCapacity,
+                this.logSpillDirectory, this.lazyResults, this.metadataCacheDirectory,
+                this.metadataRefreshInterval, this.metadataBackgroundRefresh, this.resultPool);
     }
 
     @Override
@@ -94,4 +110,59 @@ final public class EndpointBuilderImpl implements EtfValidatorClientWithExecutor
         this.retryAttempts = attempts;
         return this;
     }
+
+    @Override
+    public EtfValidatorClient connectionPool(final int maxConnections, final Duration idleTimeout) {
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("The maximum number of connections must be greater than 0");
+        }
+        this.maxConnections = maxConnections;
+        this.connectionIdleTimeout = idleTimeout;
+        return this;
+    }
+
+    @Override
+    public EtfValidatorClient pollingStrategy(final TestRunPollingStrategy pollingStrategy) {
+        this.pollingStrategy = Objects.requireNonNull(pollingStrategy, "Polling strategy not set");
+        return this;
+    }
+
+    @Override
+    public EtfValidatorClient logBuffer(final int capacity, final Path spillDirectory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The log buffer capacity must be greater than 0");
+        }
+        this.logBufferCapacity = capacity;
+        this.logSpillDirectory = spillDirectory;
+        return this;
+    }
+
+    @Override
+    public EtfValidatorClient lazyResults(final boolean lazy) {
+        this.lazyResults = lazy;
+        return this;
+    }
+
+    @Override
+    public EtfValidatorClient cacheDirectory(final Path directory) {
+        this.metadataCacheDirectory = directory;
+        return this;
+    }
+
+    @Override
+    public EtfValidatorClient metadataRefresh(final Duration minInterval, final boolean background) {
+        Objects.requireNonNull(minInterval, "Refresh interval not set");
+        if (minInterval.isNegative()) {
+            throw new IllegalArgumentException("The refresh interval must not be negative");
+        }
+        this.metadataRefreshInterval = minInterval;
+        this.metadataBackgroundRefresh = background;
+        return this;
+    }
+
+    @Override
+    public EtfValidatorClient resultPool(final ForkJoinPool pool) {
+        this.resultPool = pool;
+        return this;
+    }
 }
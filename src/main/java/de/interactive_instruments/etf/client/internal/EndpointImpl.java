@@ -20,11 +20,13 @@ import java.net.Authenticator;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.time.Duration;
 import java.util.Locale;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -57,8 +59,16 @@ final class EndpointImpl implements EtfEndpoint {
     }
 
     EndpointImpl(final ExecutorService executorService, final URL baseUrl, final Locale locale, final Authenticator auth,
-                 final Duration timeout, final DecimalFormat floatFormat, final Duration retryDelay, final int retryAttempts) {
-        this.ctx = new InstanceCtx(executorService, toBaseUri(baseUrl), auth, locale, timeout, floatFormat, retryDelay, retryAttempts);
+                 final Duration timeout, final DecimalFormat floatFormat, final Duration retryDelay, final int retryAttempts,
+                 final int maxConnections, final Duration connectionIdleTimeout,
+                 final TestRunPollingStrategy pollingStrategy, final int logBufferCapacity,
+                 final Path logSpillDirectory, final boolean lazyResults, final Path metadataCacheDirectory,
+                 final Duration metadataRefreshInterval, final boolean metadataBackgroundRefresh,
+                 final ForkJoinPool resultPool) {
+        this.ctx = new InstanceCtx(executorService, toBaseUri(baseUrl), auth, locale, timeout, floatFormat, retryDelay,
+                retryAttempts, maxConnections, connectionIdleTimeout, pollingStrategy,
+                logBufferCapacity, logSpillDirectory, lazyResults, metadataCacheDirectory,
+                metadataRefreshInterval, metadataBackgroundRefresh, resultPool);
         this.statusCmd = new InstanceStatusCmd(ctx);
         this.tagCmd = new TagCollectionCmd(ctx);
         this.etsCollectionCmd = new EtsCollectionCmd(ctx);
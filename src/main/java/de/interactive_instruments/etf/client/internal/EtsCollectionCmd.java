@@ -19,6 +19,8 @@ package de.interactive_instruments.etf.client.internal;
 import java.net.URI;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.stream.Collectors;
 
@@ -32,33 +34,91 @@ import de.interactive_instruments.etf.client.*;
 class EtsCollectionCmd {
 
     private final static String PATH = "/ExecutableTestSuites";
+    // maximum number of merged Run Parameters of filtered collections that are cached
+    private final static int MAX_CACHED_RUN_PARAMETERS = 256;
     private final InstanceCtx ctx;
 
     private static class DefaultEtsCollection extends AbstractEtfCollection<ExecutableTestSuite> implements EtsCollection {
 
         // Main collection that contains all ETS (required for resolving dependent ETS)
         private final EtsExecutionContext etsExecutionContext;
-        private EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection;
+        // replaced if the collection is still valid but the bundles have been refreshed
+        private volatile EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection;
         private final RunParameters runParameters;
+        // Tag EID to the ETS with this tag
+        private final Map<String, List<ExecutableTestSuite>> tagIndex;
+        // filtered collections by Tag EID
+        private final Map<String, EtsCollection> tagCollections = new ConcurrentHashMap<>();
+        // merged Run Parameters by ETS EIDs, shared by all collections filtered from the same collection
+        private final Map<Set<String>, RunParameters> runParametersCache;
 
+        /**
+         * @param previous
+         *            the collection that is replaced, its unchanged Executable Test Suites and its execution context
+         *            are reused
+         */
         DefaultEtsCollection(final InstanceCtx ctx, final Collection<JSONObject> jsonObjects,
                 final ExecutorService executor,
-                final EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection) {
+                final EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection,
+                final DefaultEtsCollection previous) {
             super(ctx);
             this.translationTemplateBundleCollection = translationTemplateBundleCollection;
-            this.etsExecutionContext = new EtsExecutionContext(ctx, executor);
-            initChildren(jsonObjects);
+            this.etsExecutionContext = previous != null ? previous.etsExecutionContext
+                    : new EtsExecutionContext(ctx, executor);
+            initChildren(jsonObjects, previous);
+            indexLabels();
             this.etsExecutionContext.injectExecutableTestSuites(this.items.values());
             this.runParameters = mergeRunParameters(this.items.values());
+            this.tagIndex = createTagIndex(this.items.values());
+            this.runParametersCache = new ConcurrentHashMap<>();
         }
 
-        private DefaultEtsCollection(final EtsExecutionContext etsExecutionContext,
-                final Collection<ExecutableTestSuite> filteredItems,
-                final EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection) {
-            super(etsExecutionContext.instanceCtx, filteredItems);
-            this.etsExecutionContext = etsExecutionContext;
-            this.translationTemplateBundleCollection = translationTemplateBundleCollection;
-            this.runParameters = mergeRunParameters(filteredItems);
+        private DefaultEtsCollection(final DefaultEtsCollection parent,
+                final Collection<ExecutableTestSuite> filteredItems) {
+            super(parent.etsExecutionContext.instanceCtx, filteredItems);
+            this.etsExecutionContext = parent.etsExecutionContext;
+            this.translationTemplateBundleCollection = parent.translationTemplateBundleCollection;
+            this.runParametersCache = parent.runParametersCache;
+            this.runParameters = cachedRunParameters(filteredItems);
+            this.tagIndex = createTagIndex(filteredItems);
+        }
+
+        private static Map<String, List<ExecutableTestSuite>> createTagIndex(
+                final Collection<ExecutableTestSuite> executableTestSuites) {
+            final Map<String, List<ExecutableTestSuite>> index = new HashMap<>();
+            for (final ExecutableTestSuite ets : executableTestSuites) {
+                for (final String tagEid : ets.tagEids()) {
+                    index.computeIfAbsent(tagEid, k -> new ArrayList<>(4)).add(ets);
+                }
+            }
+            return Collections.unmodifiableMap(index);
+        }
+
+        private RunParameters cachedRunParameters(final Collection<ExecutableTestSuite> executableTestSuites) {
+            final Set<String> eids = new HashSet<>();
+            for (final ExecutableTestSuite ets : executableTestSuites) {
+                eids.add(ets.eid());
+            }
+            final RunParameters cached = runParametersCache.get(eids);
+            if (cached != null) {
+                return cached;
+            }
+            final RunParameters merged = mergeRunParameters(executableTestSuites);
+            if (runParametersCache.size() < MAX_CACHED_RUN_PARAMETERS) {
+                runParametersCache.putIfAbsent(eids, merged);
+            }
+            return merged;
+        }
+
+        private List<ExecutableTestSuite> itemsWithTag(final Tag tag) {
+            return tagIndex.getOrDefault(tag.eid(), Collections.emptyList());
+        }
+
+        @Override
+        boolean reuse(final ExecutableTestSuite ets) {
+            // the bundle is only the same object if it is unchanged
+            final TranslationTemplateBundle bundle = ((ExecutableTestSuiteImpl) ets).translationTemplateBundle();
+            return translationTemplateBundleCollection.itemById(bundle.eid()).orElse(null) == bundle;
         }
 
         @Override
@@ -68,11 +128,55 @@ class EtsCollectionCmd {
 
         @Override
         public EtsCollection itemsByTag(final Tag tag) {
-            final List<ExecutableTestSuite> filteredItems = this.items.values().stream()
-                    .filter(it -> it.tagEids().stream().anyMatch(
-                            tagEid -> tagEid.equals(tag.eid())))
-                    .collect(Collectors.toList());
-            return new DefaultEtsCollection(this.etsExecutionContext, filteredItems, translationTemplateBundleCollection);
+            return tagCollections.computeIfAbsent(tag.eid(),
+                    eid -> new DefaultEtsCollection(this, itemsWithTag(tag)));
+        }
+
+        @Override
+        public EtsCollection itemsByAnyTag(final Tag... tags) {
+            if (tags == null || tags.length == 0) {
+                throw new EtfIllegalArgumentException("Tags are empty");
+            }
+            if (tags.length == 1) {
+                return itemsByTag(tags[0]);
+            }
+            final Set<ExecutableTestSuite> filteredItems = new LinkedHashSet<>();
+            for (final Tag tag : tags) {
+                filteredItems.addAll(itemsWithTag(tag));
+            }
+            return new DefaultEtsCollection(this, filteredItems);
+        }
+
+        @Override
+        public EtsCollection itemsByAllTags(final Tag... tags) {
+            if (tags == null || tags.length == 0) {
+                throw new EtfIllegalArgumentException("Tags are empty");
+            }
+            if (tags.length == 1) {
+                return itemsByTag(tags[0]);
+            }
+            // start with the smallest set
+            List<ExecutableTestSuite> smallest = null;
+            for (final Tag tag : tags) {
+                final List<ExecutableTestSuite> withTag = itemsWithTag(tag);
+                if (smallest == null || withTag.size() < smallest.size()) {
+                    smallest = withTag;
+                }
+            }
+            final List<ExecutableTestSuite> filteredItems = new ArrayList<>(smallest.size());
+            for (final ExecutableTestSuite ets : smallest) {
+                boolean hasAllTags = true;
+                for (final Tag tag : tags) {
+                    if (!ets.tagEids().contains(tag.eid())) {
+                        hasAllTags = false;
+                        break;
+                    }
+                }
+                if (hasAllTags) {
+                    filteredItems.add(ets);
+                }
+            }
+            return new DefaultEtsCollection(this, filteredItems);
         }
 
         @Override
@@ -89,7 +193,7 @@ class EtsCollectionCmd {
                     }
                 }
             }
-            return new DefaultEtsCollection(this.etsExecutionContext, filteredItems, translationTemplateBundleCollection);
+            return new DefaultEtsCollection(this, filteredItems);
         }
 
         @Override
@@ -113,13 +217,32 @@ class EtsCollectionCmd {
             return etsExecutionContext.start(this.items.values(), testObject, testRunObserver, parameters);
         }
 
+        @Override
+        public CompletionStage<TestRunResult> executeAsync(final TestObject testObject, final RunParameters parameters,
+                final TestResultVisitor visitor)
+                throws IncompatibleTestObjectTypesException, EtfIllegalStateException {
+            if (this.items.isEmpty()) {
+                throw new EtfIllegalStateException("The Executable Test Suite Collection is empty");
+            }
+            for (final ExecutableTestSuite ets : this.items.values()) {
+                if (!testObject.baseType().equals(ets.supportedBaseType())) {
+                    throw new IncompatibleTestObjectTypesException();
+                }
+            }
+            return etsExecutionContext.startAsync(this.items.values(), testObject, parameters, visitor);
+        }
+
         @Override
         public RunParameters parameters() {
             return this.runParameters;
         }
 
         EtsCollection inject(final EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection) {
-            this.translationTemplateBundleCollection = translationTemplateBundleCollection;
+            if (this.translationTemplateBundleCollection != translationTemplateBundleCollection) {
+                this.translationTemplateBundleCollection = translationTemplateBundleCollection;
+                // filtered collections are created again with the new bundles
+                this.tagCollections.clear();
+            }
             return this;
         }
     }
@@ -133,23 +256,26 @@ class EtsCollectionCmd {
     }
 
     private final JsonGetRequest apiCall;
-    private DefaultEtsCollection cachedCollection;
+    private final CollectionCache<DefaultEtsCollection> cache;
 
     EtsCollectionCmd(final InstanceCtx ctx) {
-        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx);
+        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx, true);
         this.ctx = ctx;
+        this.cache = new CollectionCache<>(ctx);
     }
 
-    synchronized EtsCollection query(final CompletableFuture ttCollectionFuture) throws RemoteInvocationException {
-        final EtfCollection<TranslationTemplateBundle> ttCResult = (EtfCollection<TranslationTemplateBundle>) AbstractCollectionCmd
-                .toCollection(ttCollectionFuture);
-        if (apiCall.upToDate()) {
-            return cachedCollection.inject(ttCResult);
-        } else {
-            final Collection<JSONObject> result = new JSONObjectOrArray(apiCall.query().getJSONObject("EtfItemCollection")
+    EtsCollection query(final CompletableFuture ttCollectionFuture) throws RemoteInvocationException {
+        return cache.get(cachedCollection -> {
+            final EtfCollection<TranslationTemplateBundle> ttCResult = (EtfCollection<TranslationTemplateBundle>) AbstractCollectionCmd
+                    .toCollection(ttCollectionFuture);
+            final JSONObject response = apiCall.queryIfModified(cachedCollection != null);
+            if (response == null) {
+                cachedCollection.inject(ttCResult);
+                return cachedCollection;
+            }
+            final Collection<JSONObject> result = new JSONObjectOrArray(response.getJSONObject("EtfItemCollection")
                     .getJSONObject("executableTestSuites")).get("ExecutableTestSuite");
-            cachedCollection = new DefaultEtsCollection(ctx, result, ctx.executor(), ttCResult);
-        }
-        return cachedCollection;
+            return new DefaultEtsCollection(ctx, result, ctx.executor(), ttCResult, cachedCollection);
+        });
     }
 }
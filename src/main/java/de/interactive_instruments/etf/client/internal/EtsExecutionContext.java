@@ -18,6 +18,8 @@ package de.interactive_instruments.etf.client.internal;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 
 import de.interactive_instruments.etf.client.*;
@@ -26,18 +28,19 @@ import de.interactive_instruments.etf.client.*;
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
 final class EtsExecutionContext {
-    private Iterable<ExecutableTestSuite> allExecutableTestSuites;
+    // result contexts of all ETS, replaced when the collection is refreshed
+    private volatile Map<String, AbstractResult.ResultCtx> resultCtxs;
     final InstanceCtx instanceCtx;
     private final ExecutorService executor;
 
     EtsExecutionContext(final InstanceCtx instanceCtx, final ExecutorService executor) {
-        this.allExecutableTestSuites = Collections.emptyList();
+        this.resultCtxs = Collections.emptyMap();
         this.instanceCtx = instanceCtx;
         this.executor = executor;
     }
 
     public void injectExecutableTestSuites(final Iterable<ExecutableTestSuite> allExecutableTestSuites) {
-        this.allExecutableTestSuites = allExecutableTestSuites;
+        this.resultCtxs = AbstractResult.ResultCtx.index(this.instanceCtx, allExecutableTestSuites, this.resultCtxs);
     }
 
     TestRun start(final Collection<ExecutableTestSuite> selectedExecutableTestSuites,
@@ -47,7 +50,17 @@ final class EtsExecutionContext {
                 this.instanceCtx,
                 this.executor,
                 selectedExecutableTestSuites,
-                this.allExecutableTestSuites,
+                this.resultCtxs,
                 testObject, testRunObserver, parameters);
     }
+
+    CompletionStage<TestRunResult> startAsync(final Collection<ExecutableTestSuite> selectedExecutableTestSuites,
+            final TestObject testObject, final RunParameters parameters, final TestResultVisitor visitor) {
+        return TestRunCmd.startAsync(
+                this.instanceCtx,
+                this.executor,
+                selectedExecutableTestSuites,
+                this.resultCtxs,
+                testObject, parameters, visitor);
+    }
 }
@@ -16,10 +16,8 @@
  */
 package de.interactive_instruments.etf.client.internal;
 
-import static java.util.regex.Pattern.CASE_INSENSITIVE;
-
 import java.util.*;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletionStage;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -35,10 +33,10 @@ final class ExecutableTestSuiteImpl extends AbstractMetadata implements Executab
     private final TestObjectBaseType baseType;
     private final Collection<String> tagEids;
     private final TranslationTemplateBundle bundle;
-    private final EidObjectMapping eidObjectMappings;
+    // created on first use, only the EIDs, labels and descriptions of the items are kept until then
+    private volatile EidIndex eidIndex;
+    private EidIndex.Builder eidIndexBuilder;
     private final RunParameters runParameters;
-    private final static Pattern floatingTokensPattern = Pattern.compile(".*coord.*|.*distance.*|.*height.*|.*meter.*",
-            CASE_INSENSITIVE);
 
     ExecutableTestSuiteImpl(final EtsExecutionContext etsExecutionContext, final JSONObject jsonObject,
             final EtfCollection<TranslationTemplateBundle> translationTemplateBundleCollection) {
@@ -81,21 +79,28 @@ final class ExecutableTestSuiteImpl extends AbstractMetadata implements Executab
                     + "notified of the missing translation.");
         }
         bundle = b.get();
+        eidIndexBuilder = createEidIndexBuilder(jsonObject);
+        runParameters = RunParametersImpl.init(jsonObject);
+    }
 
-        final EidObjectMappingBuilder mappingBuilder = new EidObjectMappingBuilder();
+    /**
+     * Collects the EIDs, labels and descriptions of all Test Modules, Test Cases, Test Steps and Test Assertions of
+     * this ETS
+     */
+    private static EidIndex.Builder createEidIndexBuilder(final JSONObject definition) {
+        final EidIndex.Builder mappingBuilder = new EidIndex.Builder();
         final String[] names = {
                 "testModules", "TestModule",
                 "testCases", "TestCase",
                 "testSteps", "TestStep",
                 "testAssertions", "TestAssertion"
         };
-        mappingBuilder.add(jsonObject);
-        createMappings(mappingBuilder, jsonObject, names, 0);
-        eidObjectMappings = mappingBuilder.build();
-        runParameters = RunParametersImpl.init(jsonObject);
+        mappingBuilder.add(definition);
+        createMappings(mappingBuilder, definition, names, 0);
+        return mappingBuilder;
     }
 
-    private void createMappings(final EidObjectMappingBuilder mappingBuilder, final JSONObject jsonObj,
+    private static void createMappings(final EidIndex.Builder mappingBuilder, final JSONObject jsonObj,
             final String[] names, final int pos) {
         if (pos < names.length && jsonObj.has(names[pos])) {
             final Collection<JSONObject> children = new JSONObjectOrArray(
@@ -117,43 +122,41 @@ final class ExecutableTestSuiteImpl extends AbstractMetadata implements Executab
         return tagEids;
     }
 
-    String translate(final Locale locale, final JSONObject messageJson) {
-        final String name = messageJson.getString("ref");
-        final Map<String, String> parameterMap;
-        if (messageJson.has("translationArguments")) {
-            parameterMap = new HashMap<>();
-            final JSONObject translationArguments = messageJson.getJSONObject("translationArguments");
-            final Collection<JSONObject> arguments = new JSONObjectOrArray(translationArguments).get("argument");
-            for (final JSONObject argument : arguments) {
-                if (!argument.has("token")) {
+    TranslationTemplateBundle translationTemplateBundle() {
+        return bundle;
+    }
+
+    String translate(final String language, final ResultMessage message) {
+        if (message.hasArguments()) {
+            for (int i = 0; i < message.argumentCount(); i++) {
+                if (message.token(i) == null) {
                     throw new ReferenceError("No token provided in the Translation Argument. "
                             + "This is most likely a bug in the Executable Test Suite. Translation Argument: "
-                            + argument.toString());
-                }
-                if (argument.has("$")) {
-                    final Object vO = argument.get("$");
-                    final String token = argument.getString("token");
-                    final String value;
-                    if (etsExecutionContext.instanceCtx.formatFloats() && vO instanceof Number) {
-                        if (vO instanceof Double || vO instanceof Float || floatingTokensPattern.matcher(token).matches()) {
-                            value = etsExecutionContext.instanceCtx.format(vO);
-                        } else {
-                            value = vO.toString();
-                        }
-                    } else {
-                        value = vO.toString();
-                    }
-                    parameterMap.put(token, value);
-                } else {
-                    // The necessary information is missing in the error message. Hopefully the user will understand the
-                    // error...
-                    parameterMap.put(argument.getString("token"), "");
+                            + message.value(i));
                 }
             }
-        } else {
-            parameterMap = null;
+            final TranslationTemplateBundle.Translation template = bundle.template(language, message.ref());
+            if (template == null) {
+                return null;
+            }
+            return etsExecutionContext.instanceCtx.renderCache.render(template, message,
+                    () -> template.translate(token -> argument(message, token)));
+        }
+        return bundle.translate(language, message.ref(), token -> null);
+    }
+
+    private String argument(final ResultMessage message, final String token) {
+        final int i = message.indexOf(token);
+        if (i == -1) {
+            return null;
+        }
+        final Object vO = message.value(i);
+        if (vO == null) {
+            // The necessary information is missing in the error message. Hopefully the user will understand the
+            // error...
+            return "";
         }
-        return bundle.translate(locale.getLanguage(), name, parameterMap);
+        return etsExecutionContext.instanceCtx.format(token, vO);
     }
 
     @Override
@@ -171,12 +174,37 @@ final class ExecutableTestSuiteImpl extends AbstractMetadata implements Executab
         return this.etsExecutionContext.start(Collections.singleton(this), testObject, testRunObserver, parameters);
     }
 
+    @Override
+    public CompletionStage<TestRunResult> executeAsync(final TestObject testObject, final RunParameters parameters,
+            final TestResultVisitor visitor)
+            throws IncompatibleTestObjectTypesException {
+        if (!testObject.baseType().equals(this.baseType)) {
+            throw new IncompatibleTestObjectTypesException();
+        }
+        return this.etsExecutionContext.startAsync(Collections.singleton(this), testObject, parameters, visitor);
+    }
+
     @Override
     public RunParameters parameters() {
         return this.runParameters;
     }
 
-    EidObjectMapping objectMapping() {
-        return eidObjectMappings;
+    /**
+     * Returns the index of the EIDs of all Test Modules, Test Cases, Test Steps and Test Assertions of this ETS. The
+     * hash table is created when it is requested for the first time.
+     */
+    EidIndex eidIndex() {
+        EidIndex index = eidIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = eidIndex;
+                if (index == null) {
+                    index = eidIndexBuilder.build();
+                    eidIndex = index;
+                    eidIndexBuilder = null;
+                }
+            }
+        }
+        return index;
     }
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static java.util.regex.Pattern.CASE_INSENSITIVE;
+
+import java.text.DecimalFormat;
+import java.text.FieldPosition;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Thread safe formatter for numeric translation arguments.
+ *
+ * Each thread formats with its own copy of the configured DecimalFormat and reuses its buffer, so only the resulting
+ * String is allocated. Whether the argument of a token is formatted as floating point number is decided once per
+ * token name.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class FloatFormatter {
+
+    private final static Pattern floatingTokensPattern = Pattern.compile(".*coord.*|.*distance.*|.*height.*|.*meter.*",
+            CASE_INSENSITIVE);
+    // maximum number of classified token names that are cached
+    private final static int MAX_CACHED_TOKENS = 4096;
+
+    private final static class ThreadState {
+        private final DecimalFormat format;
+        private final StringBuffer buffer = new StringBuffer(16);
+        private final FieldPosition position = new FieldPosition(0);
+
+        private ThreadState(final DecimalFormat format) {
+            this.format = format;
+        }
+
+        private String format(final Object value) {
+            buffer.setLength(0);
+            return format.format(value, buffer, position).toString();
+        }
+    }
+
+    private final ThreadLocal<ThreadState> state;
+    private final Map<String, Boolean> floatingTokens = new ConcurrentHashMap<>();
+
+    /**
+     * @param format
+     *            the format is copied, later changes are not taken over
+     */
+    FloatFormatter(final DecimalFormat format) {
+        final DecimalFormat prototype = (DecimalFormat) format.clone();
+        this.state = ThreadLocal.withInitial(() -> new ThreadState((DecimalFormat) prototype.clone()));
+    }
+
+    private boolean floatingToken(final String token) {
+        final Boolean cached = floatingTokens.get(token);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean floating = floatingTokensPattern.matcher(token).matches();
+        if (floatingTokens.size() < MAX_CACHED_TOKENS) {
+            floatingTokens.put(token, floating);
+        }
+        return floating;
+    }
+
+    /**
+     * Formats the value of a translation argument. Double and Float values, and numbers of tokens that denote
+     * coordinates, distances, heights or meters are formatted as floating point numbers.
+     *
+     * @param token
+     *            token of the argument
+     * @param value
+     *            value of the argument
+     * @return formatted value
+     */
+    String format(final String token, final Object value) {
+        if (value instanceof Number
+                && (value instanceof Double || value instanceof Float || floatingToken(token))) {
+            return state.get().format(value);
+        }
+        return value.toString();
+    }
+}
@@ -18,6 +18,7 @@ package de.interactive_instruments.etf.client.internal;
 
 import java.net.Authenticator;
 import java.net.URI;
+import java.nio.file.Path;
 import java.text.DecimalFormat;
 import java.time.Duration;
 import java.util.*;
@@ -25,12 +26,16 @@ import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import de.interactive_instruments.etf.client.EtfIllegalStateException;
+import de.interactive_instruments.etf.client.TestRunPollingStrategy;
 
 /**
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
 final class InstanceCtx {
 
+    // maximum number of rendered messages that are shared by the results of the Endpoint
+    private final static int MESSAGE_RENDER_CACHE_CAPACITY = 16384;
+
     final URI baseUrl;
     final Authenticator auth;
     final Locale locale;
@@ -38,14 +43,32 @@ final class InstanceCtx {
     final String sessionId;
     final Duration retryDelay;
     final int retryAttempts;
+    final TestRunPollingStrategy pollingStrategy;
+    final int logBufferCapacity;
+    final Path logSpillDirectory;
+    final boolean lazyResults;
+    final MetadataCache metadataCache;
+    final Duration metadataRefreshInterval;
+    final boolean metadataBackgroundRefresh;
+    final ForkJoinPool resultPool;
     final AtomicInteger requestNo = new AtomicInteger(1);
-    private final DecimalFormat floatFormat;
+    final MessageRenderCache renderCache = new MessageRenderCache(MESSAGE_RENDER_CACHE_CAPACITY);
+    private final FloatFormatter floatFormatter;
     private final ExecutorService executor;
+    private final SharedHttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
     private boolean shutdown = false;
     private final Set<TestRunCmd> testRuns = new ConcurrentSkipListSet<>();
+    // futures of asynchronous requests, whose retry is scheduled but has not been started yet
+    private final Set<CompletableFuture<?>> pendingRetries = ConcurrentHashMap.newKeySet();
 
     InstanceCtx(final ExecutorService executorService, final URI baseUrl, final Authenticator auth, final Locale locale,
-            final Duration timeout, final DecimalFormat floatFormat, final Duration retryDelay, final int retryAttempts) {
+            final Duration timeout, final DecimalFormat floatFormat, final Duration retryDelay, final int retryAttempts,
+            final int maxConnections, final Duration connectionIdleTimeout,
+            final TestRunPollingStrategy pollingStrategy, final int logBufferCapacity,
+            final Path logSpillDirectory, final boolean lazyResults, final Path metadataCacheDirectory,
+            final Duration metadataRefreshInterval, final boolean metadataBackgroundRefresh,
+            final ForkJoinPool resultPool) {
         if (executorService == null) {
             this.executor = new ThreadPoolExecutor(0, 256, 5,
                     TimeUnit.SECONDS, new SynchronousQueue<>());
@@ -57,16 +80,36 @@ final class InstanceCtx {
         this.locale = locale;
         this.sessionId = UUID.randomUUID().toString();
         this.timeout = timeout;
-        this.floatFormat = floatFormat;
+        this.floatFormatter = floatFormat != null ? new FloatFormatter(floatFormat) : null;
         this.retryDelay = retryDelay;
         this.retryAttempts = retryAttempts;
+        this.pollingStrategy = pollingStrategy;
+        this.logBufferCapacity = logBufferCapacity;
+        this.logSpillDirectory = logSpillDirectory;
+        this.lazyResults = lazyResults;
+        this.metadataCache = metadataCacheDirectory != null ? new MetadataCache(metadataCacheDirectory) : null;
+        this.metadataRefreshInterval = metadataRefreshInterval;
+        this.metadataBackgroundRefresh = metadataBackgroundRefresh;
+        this.resultPool = resultPool;
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "etf-client-scheduler-" + this.sessionId);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.setRemoveOnCancelPolicy(true);
+        this.scheduler = scheduler;
+        this.httpClient = new SharedHttpClient(this.executor, auth, this.sessionId, maxConnections,
+                connectionIdleTimeout);
     }
 
-    String format(final Object obj) {
-        if (formatFloats()) {
-            return floatFormat.format(obj);
+    /**
+     * Formats the value of a translation argument
+     */
+    String format(final String token, final Object value) {
+        if (floatFormatter != null) {
+            return floatFormatter.format(token, value);
         } else {
-            return obj.toString();
+            return value.toString();
         }
     }
 
@@ -78,6 +121,42 @@ final class InstanceCtx {
         return executor;
     }
 
+    ScheduledExecutorService scheduler() {
+        if (shutdown) {
+            throw new EtfIllegalStateException("The connection to the endpoint with session ID '"
+                    + this.sessionId + "' is closed");
+        }
+        return scheduler;
+    }
+
+    /**
+     * Schedules the retry of an asynchronous request. If the endpoint is closed before the retry has been started, the
+     * future of the request is completed exceptionally.
+     *
+     * @throws RejectedExecutionException
+     *             if the endpoint is already closed
+     */
+    void scheduleRetry(final Runnable retry, final Duration delay, final CompletableFuture<?> result) {
+        pendingRetries.add(result);
+        try {
+            scheduler.schedule(() -> {
+                pendingRetries.remove(result);
+                retry.run();
+            }, delay.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            pendingRetries.remove(result);
+            throw e;
+        }
+    }
+
+    SharedHttpClient httpClient() {
+        if (shutdown) {
+            throw new EtfIllegalStateException("The connection to the endpoint with session ID '"
+                    + this.sessionId + "' is closed");
+        }
+        return httpClient;
+    }
+
     void registerRun(final TestRunCmd testRun) {
         this.testRuns.add(testRun);
     }
@@ -97,6 +176,14 @@ final class InstanceCtx {
             } catch (final Exception ignore) {}
         }
         this.testRuns.clear();
+        scheduler.shutdownNow();
+        // the retries are not run anymore
+        for (final CompletableFuture<?> retry : pendingRetries) {
+            retry.completeExceptionally(new EtfIllegalStateException("The connection to the endpoint with session ID '"
+                    + this.sessionId + "' is closed"));
+        }
+        pendingRetries.clear();
+        httpClient.close();
         executor.shutdown();
         try {
             if (!executor.awaitTermination(2, TimeUnit.SECONDS)) {
@@ -107,10 +194,6 @@ final class InstanceCtx {
         }
     }
 
-    boolean formatFloats() {
-        return floatFormat != null;
-    }
-
     int requestNo() {
         return requestNo.getAndIncrement();
     }
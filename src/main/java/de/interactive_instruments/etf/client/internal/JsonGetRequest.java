@@ -17,9 +17,16 @@
 package de.interactive_instruments.etf.client.internal;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -31,48 +38,111 @@ import de.interactive_instruments.etf.client.RemoteInvocationException;
  */
 final class JsonGetRequest extends Request {
 
-    private String ifModifiedSinceValue;
+    private final URI url;
+    // validators of the last response
+    private volatile String eTag;
+    private volatile String lastModified;
+    private final MetadataCache metadataCache;
+    private final Locale locale;
 
     JsonGetRequest(final URI url, final InstanceCtx ctx) {
+        this(url, ctx, false);
+    }
+
+    /**
+     * @param persistent
+     *            true if the responses of {@link #queryIfModified(boolean)} shall be stored in the metadata cache of
+     *            the endpoint, if one is configured
+     */
+    JsonGetRequest(final URI url, final InstanceCtx ctx, final boolean persistent) {
         super(url, ctx);
-        ifModifiedSinceValue = "Sat, 1 Jan 2000 01:01:01 +0100";
+        this.url = url;
+        this.metadataCache = persistent ? ctx.metadataCache : null;
+        this.locale = ctx.locale;
     }
 
     private HttpRequest.Builder newBuilderWithConditionalRequest() {
-        return this.requestBuilder.copy().headers("If-Modified-Since", ifModifiedSinceValue);
+        final HttpRequest.Builder builder = this.requestBuilder.copy();
+        final String eTag = this.eTag;
+        if (eTag != null) {
+            builder.header("If-None-Match", eTag);
+        }
+        final String lastModified = this.lastModified;
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+        return builder;
     }
 
     private HttpRequest.Builder newBuilder() {
         return this.requestBuilder.copy();
     }
 
+    private void updateValidators(final HttpResponse<?> response) {
+        eTag = response.headers().firstValue("ETag").orElse(null);
+        final String dateHeaderValue = response.headers().firstValue("date").orElse(lastModified);
+        lastModified = response.headers().firstValue("Last-Modified").orElse(dateHeaderValue);
+    }
+
     /**
-     * Send request with If-Modified-Since header and compare results
+     * Query the resource with a conditional GET request, that contains the validators of the last response in the
+     * If-None-Match and If-Modified-Since headers.
      *
-     * @return false if remote collection changed, true otherwise
+     * A server that does not support conditional requests ignores the validators and answers with 200, so no other
+     * status code is expected.
+     *
+     * If a metadata cache is used and the response of the last query has not been kept, the response is loaded from
+     * the cache and revalidated with the validators that have been stored with it.
+     *
+     * @param validate
+     *            false if the response of the last query has not been kept
+     * @return the response or null if the resource has not been modified since the last query
      */
-    synchronized boolean upToDate() throws RemoteInvocationException {
-        final HttpRequest request = newBuilderWithConditionalRequest().method("HEAD", HttpRequest.BodyPublishers.noBody())
-                .build();
+    JSONObject queryIfModified(final boolean validate) throws RemoteInvocationException {
+        MetadataCache.Entry cached = null;
+        if (!validate && metadataCache != null) {
+            cached = metadataCache.load(url, locale);
+            if (cached != null) {
+                eTag = cached.eTag;
+                lastModified = cached.lastModified;
+            }
+        }
+        if ((!validate && cached == null) || (eTag == null && lastModified == null)) {
+            return persist(query());
+        }
+        final HttpRequest request = newBuilderWithConditionalRequest().GET().build();
+        final HttpResponse.BodyHandler<String> bodyHandler = HttpResponse.BodyHandlers.ofString();
+        HttpResponse<String> response = null;
         int attempts = retryAttempts;
-        while(true) {
+        while (true) {
             try {
-                final HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
-                checkResponse(response, 200, 204, 304, 405);
-                if (response.statusCode() == 405) {
-                    logger.debug("Head operation blocked by server");
+                response = httpClient.send(request, bodyHandler);
+                checkResponse(response, 200, 304);
+                if (response.statusCode() == 304) {
+                    return cached != null ? cached.body : null;
                 }
-                return response.statusCode() == 304;
+                final JSONObject result = new JSONObject(response.body());
+                updateValidators(response);
+                return persist(result);
+            } catch (final InterruptedException e) {
+                throw new RemoteInvocationException(e);
             } catch (final IOException e) {
                 if (attempts-- == 0) throw new RemoteInvocationException(e);
                 delay();
-            } catch (final InterruptedException e) {
-                throw new RemoteInvocationException(e);
+            } catch (final JSONException e) {
+                throw new RemoteInvocationException(e, response);
             }
         }
     }
 
-    synchronized JSONObject query() throws RemoteInvocationException {
+    private JSONObject persist(final JSONObject response) {
+        if (metadataCache != null) {
+            metadataCache.store(url, locale, eTag, lastModified, response);
+        }
+        return response;
+    }
+
+    JSONObject query() throws RemoteInvocationException {
         final HttpRequest request = newBuilder().GET().build();
         final HttpResponse.BodyHandler<String> bodyHandler = HttpResponse.BodyHandlers.ofString();
         HttpResponse<String> response = null;
@@ -81,9 +151,9 @@ final class JsonGetRequest extends Request {
             try {
                 response = httpClient.send(request, bodyHandler);
                 checkResponse(response, 200);
-                final String dateHeaderValue = response.headers().firstValue("date").orElse(ifModifiedSinceValue);
-                ifModifiedSinceValue = response.headers().firstValue("Last-Modified").orElse(dateHeaderValue);
-                return new JSONObject(response.body());
+                final JSONObject result = new JSONObject(response.body());
+                updateValidators(response);
+                return result;
             } catch( final InterruptedException e){
                 throw new RemoteInvocationException(e);
             } catch( final IOException e){
@@ -94,4 +164,69 @@ final class JsonGetRequest extends Request {
             }
         }
     }
+
+    @FunctionalInterface
+    interface BodyParser<T> {
+        T parse(final Reader reader) throws IOException;
+    }
+
+    /**
+     * Query the resource and pass the response body to the parser while it is received, without buffering the whole
+     * body in memory. Only the connection is retried, not the parsing.
+     */
+    <T> T query(final BodyParser<T> parser) throws RemoteInvocationException {
+        final HttpRequest request = newBuilder().GET().build();
+        // the body of an error response is read as String, so that it can be included in the exception
+        final HttpResponse.BodyHandler<Object> bodyHandler = responseInfo -> responseInfo.statusCode() == 200
+                ? HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(), in -> in)
+                : HttpResponse.BodySubscribers.mapping(
+                        HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8), body -> body);
+        HttpResponse<Object> response = null;
+        int attempts = retryAttempts;
+        while (true) {
+            try {
+                response = httpClient.send(request, bodyHandler);
+                checkResponse(response, 200);
+                updateValidators(response);
+                break;
+            } catch (final InterruptedException e) {
+                throw new RemoteInvocationException(e);
+            } catch (final IOException e) {
+                if (attempts-- == 0) throw new RemoteInvocationException(e);
+                delay();
+            }
+        }
+        try (final Reader reader = new InputStreamReader((InputStream) response.body(), StandardCharsets.UTF_8)) {
+            return parser.parse(reader);
+        } catch (final IOException e) {
+            throw new RemoteInvocationException(e);
+        } catch (final JSONException e) {
+            throw new RemoteInvocationException(e, null);
+        }
+    }
+
+    CompletableFuture<JSONObject> queryAsync() {
+        return queryAsync(newBuilder().GET().build());
+    }
+
+    /**
+     * Query the resource with additional query parameters
+     *
+     * @param query
+     *            encoded query string without the leading question mark
+     */
+    CompletableFuture<JSONObject> queryAsync(final String query) {
+        return queryAsync(newBuilder().uri(URI.create(url.toString() + "?" + query)).GET().build());
+    }
+
+    private CompletableFuture<JSONObject> queryAsync(final HttpRequest request) {
+        return sendAsync(request, HttpResponse.BodyHandlers.ofString(), 200).thenApply(response -> {
+            updateValidators(response);
+            try {
+                return new JSONObject(response.body());
+            } catch (final JSONException e) {
+                throw new CompletionException(new RemoteInvocationException(e, response));
+            }
+        });
+    }
 }
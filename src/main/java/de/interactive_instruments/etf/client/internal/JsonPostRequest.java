@@ -28,6 +28,8 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.json.JSONException;
 import org.json.JSONObject;
@@ -102,6 +104,18 @@ class JsonPostRequest extends Request {
         return request(body, "Content-Type", "application/json");
     }
 
+    CompletableFuture<JSONObject> postAsync(final JSONObject jsonObject) {
+        final HttpRequest request = newPostRequest().POST(HttpRequest.BodyPublishers.ofString(jsonObject.toString()))
+                .headers("Content-Type", "application/json").build();
+        return sendAsync(request, HttpResponse.BodyHandlers.ofString(), 200, 201).thenApply(response -> {
+            try {
+                return new JSONObject(response.body());
+            } catch (final JSONException e) {
+                throw new CompletionException(new RemoteInvocationException(e, response));
+            }
+        });
+    }
+
     JSONObject upload(final Path path) throws RemoteInvocationException, IOException {
         final Map<Object, Object> data = new LinkedHashMap<>();
         data.put("fileupload", path);
@@ -0,0 +1,420 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+
+import org.json.JSONException;
+
+/**
+ * Minimal pull parser that reads a JSON document token by token, without building a DOM.
+ *
+ * Numbers are converted to the same types as in org.json, so values read with this parser can be formatted like values
+ * from a JSONObject.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class JsonStreamReader {
+
+    enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    // scopes
+    private final static int DOCUMENT = 0;
+    private final static int DOCUMENT_END = 1;
+    private final static int EMPTY_ARRAY = 2;
+    private final static int NONEMPTY_ARRAY = 3;
+    private final static int EMPTY_OBJECT = 4;
+    private final static int NONEMPTY_OBJECT = 5;
+    private final static int DANGLING_NAME = 6;
+
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    private int[] stack = new int[32];
+    private int depth = 1;
+
+    private Token peeked;
+    private String peekedLiteral;
+    private final StringBuilder builder = new StringBuilder();
+
+    JsonStreamReader(final Reader reader) {
+        this.reader = reader;
+        stack[0] = DOCUMENT;
+    }
+
+    Token peek() throws IOException {
+        if (peeked != null) {
+            return peeked;
+        }
+        final int scope = stack[depth - 1];
+        switch (scope) {
+        case EMPTY_ARRAY:
+        case NONEMPTY_ARRAY: {
+            stack[depth - 1] = NONEMPTY_ARRAY;
+            int c = nextNonWhitespace();
+            if (c == ']') {
+                return peeked = Token.END_ARRAY;
+            }
+            if (scope == NONEMPTY_ARRAY) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or ']'");
+                }
+                c = nextNonWhitespace();
+            }
+            return peeked = value(c);
+        }
+        case EMPTY_OBJECT:
+        case NONEMPTY_OBJECT: {
+            int c = nextNonWhitespace();
+            if (c == '}') {
+                return peeked = Token.END_OBJECT;
+            }
+            if (scope == NONEMPTY_OBJECT) {
+                if (c != ',') {
+                    throw syntaxError("Expected ',' or '}'");
+                }
+                c = nextNonWhitespace();
+            }
+            if (c != '"') {
+                throw syntaxError("Expected name");
+            }
+            stack[depth - 1] = DANGLING_NAME;
+            return peeked = Token.NAME;
+        }
+        case DANGLING_NAME:
+            if (nextNonWhitespace() != ':') {
+                throw syntaxError("Expected ':'");
+            }
+            stack[depth - 1] = NONEMPTY_OBJECT;
+            return peeked = value(nextNonWhitespace());
+        case DOCUMENT:
+            stack[depth - 1] = DOCUMENT_END;
+            return peeked = value(nextNonWhitespace());
+        default:
+            if (nextNonWhitespace() != -1) {
+                throw syntaxError("Unexpected content after the end of the document");
+            }
+            return peeked = Token.END_DOCUMENT;
+        }
+    }
+
+    private Token value(final int c) throws IOException {
+        switch (c) {
+        case '{':
+            return Token.BEGIN_OBJECT;
+        case '[':
+            return Token.BEGIN_ARRAY;
+        case '"':
+            return Token.STRING;
+        case -1:
+            throw syntaxError("Unexpected end of the document");
+        default:
+            pos--;
+            peekedLiteral = readLiteral();
+            if ("true".equals(peekedLiteral) || "false".equals(peekedLiteral)) {
+                return Token.BOOLEAN;
+            } else if ("null".equals(peekedLiteral)) {
+                return Token.NULL;
+            } else if (peekedLiteral.isEmpty()) {
+                throw syntaxError("Unexpected character '" + (char) c + "'");
+            }
+            return Token.NUMBER;
+        }
+    }
+
+    private void push(final int scope) {
+        if (depth == stack.length) {
+            final int[] newStack = new int[depth * 2];
+            System.arraycopy(stack, 0, newStack, 0, depth);
+            stack = newStack;
+        }
+        stack[depth++] = scope;
+    }
+
+    private void expect(final Token token) throws IOException {
+        if (peek() != token) {
+            throw syntaxError("Expected " + token + " but was " + peeked);
+        }
+        peeked = null;
+    }
+
+    void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        depth--;
+    }
+
+    void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        depth--;
+    }
+
+    /**
+     * Returns true if the current object or array has another element
+     */
+    boolean hasNext() throws IOException {
+        final Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Returns the next string value. Numbers and booleans are returned in their literal representation.
+     */
+    String nextString() throws IOException {
+        final Token token = peek();
+        if (token == Token.STRING) {
+            peeked = null;
+            return readString();
+        } else if (token == Token.NUMBER || token == Token.BOOLEAN) {
+            peeked = null;
+            return peekedLiteral;
+        }
+        throw syntaxError("Expected a string but was " + token);
+    }
+
+    long nextLong() throws IOException {
+        final String value = nextString();
+        try {
+            return Long.parseLong(value);
+        } catch (final NumberFormatException e) {
+            try {
+                return new BigDecimal(value).longValueExact();
+            } catch (final NumberFormatException | ArithmeticException ignore) {
+                throw syntaxError("Expected a long value but was '" + value + "'");
+            }
+        }
+    }
+
+    /**
+     * Returns the next primitive value as String, Boolean, Number or null. Numbers are converted like in org.json:
+     * decimal numbers to Double, integers to Integer or Long.
+     */
+    Object nextValue() throws IOException {
+        switch (peek()) {
+        case STRING:
+            peeked = null;
+            return readString();
+        case BOOLEAN:
+            peeked = null;
+            return Boolean.valueOf(peekedLiteral);
+        case NULL:
+            peeked = null;
+            return null;
+        case NUMBER:
+            peeked = null;
+            return toNumber(peekedLiteral);
+        default:
+            throw syntaxError("Expected a primitive value but was " + peeked);
+        }
+    }
+
+    void nextNull() throws IOException {
+        expect(Token.NULL);
+    }
+
+    /**
+     * Skips the next value, including all nested values of objects and arrays
+     */
+    void skipValue() throws IOException {
+        int level = 0;
+        do {
+            switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                level++;
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                level++;
+                break;
+            case END_OBJECT:
+                endObject();
+                level--;
+                break;
+            case END_ARRAY:
+                endArray();
+                level--;
+                break;
+            case NAME:
+            case STRING:
+                peeked = null;
+                skipString();
+                break;
+            case END_DOCUMENT:
+                throw syntaxError("Unexpected end of the document");
+            default:
+                peeked = null;
+                break;
+            }
+        } while (level > 0);
+    }
+
+    /**
+     * Converts a number literal like JSONObject.stringToValue(): numbers that cannot be represented as Double, Integer
+     * or Long are returned as String.
+     */
+    private static Object toNumber(final String literal) {
+        final char initial = literal.charAt(0);
+        if ((initial < '0' || initial > '9') && initial != '-') {
+            return literal;
+        }
+        try {
+            if (literal.indexOf('.') > -1 || literal.indexOf('e') > -1 || literal.indexOf('E') > -1
+                    || "-0".equals(literal)) {
+                final Double d = Double.valueOf(literal);
+                if (!d.isInfinite() && !d.isNaN()) {
+                    return d;
+                }
+            } else {
+                final Long l = Long.valueOf(literal);
+                if (literal.equals(l.toString())) {
+                    if (l == l.intValue()) {
+                        return l.intValue();
+                    }
+                    return l;
+                }
+            }
+        } catch (final NumberFormatException ignore) {
+            // returned as String
+        }
+        return literal;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            consumed += limit;
+            pos = 0;
+            limit = reader.read(buffer, 0, buffer.length);
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private String readLiteral() throws IOException {
+        builder.setLength(0);
+        for (int c = read(); c != -1; c = read()) {
+            if (c == ',' || c == '}' || c == ']' || c == ':' || c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                pos--;
+                break;
+            }
+            builder.append((char) c);
+        }
+        return builder.toString();
+    }
+
+    private String readString() throws IOException {
+        builder.setLength(0);
+        while (true) {
+            // copy unescaped runs in one step
+            int start = pos;
+            while (pos < limit) {
+                final char c = buffer[pos];
+                if (c == '"' || c == '\\') {
+                    break;
+                }
+                pos++;
+            }
+            builder.append(buffer, start, pos - start);
+            final int c = read();
+            if (c == '"') {
+                return builder.toString();
+            } else if (c == '\\') {
+                builder.append(readEscaped());
+            } else if (c == -1) {
+                throw syntaxError("Unterminated string");
+            } else {
+                builder.append((char) c);
+            }
+        }
+    }
+
+    private void skipString() throws IOException {
+        for (int c = read(); c != '"'; c = read()) {
+            if (c == '\\') {
+                readEscaped();
+            } else if (c == -1) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    private char readEscaped() throws IOException {
+        final int c = read();
+        switch (c) {
+        case 'b':
+            return '\b';
+        case 't':
+            return '\t';
+        case 'n':
+            return '\n';
+        case 'f':
+            return '\f';
+        case 'r':
+            return '\r';
+        case 'u':
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                final int h = Character.digit(read(), 16);
+                if (h == -1) {
+                    throw syntaxError("Invalid unicode escape sequence");
+                }
+                value = (value << 4) + h;
+            }
+            return (char) value;
+        case -1:
+            throw syntaxError("Unterminated escape sequence");
+        default:
+            return (char) c;
+        }
+    }
+
+    private JSONException syntaxError(final String message) {
+        return new JSONException(message + " at character " + (consumed + pos));
+    }
+}
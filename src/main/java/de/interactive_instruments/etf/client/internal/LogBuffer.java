@@ -0,0 +1,235 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ring buffer for the log entries of one Test Run.
+ *
+ * Entries are appended by the monitor of the Test Run only. The array grows on demand until the capacity is reached,
+ * afterwards the oldest entries are overwritten. Readers never block: they copy the retained entries and discard the
+ * ones that may have been overwritten while copying. If a spill directory is configured, all entries are additionally
+ * written to a file, so entries that are no longer retained in memory can still be read until the buffer is closed.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class LogBuffer {
+
+    private final static Logger logger = LoggerFactory.getLogger(LogBuffer.class);
+    private final static int INITIAL_SIZE = 64;
+
+    private volatile AtomicReferenceArray<String> entries;
+    private final int capacity;
+    // number of entries whose slots are being written, published before a slot is touched
+    private volatile long written;
+    // number of appended entries, published after the entries have been written
+    private volatile long count;
+    private volatile Path spillFile;
+    private BufferedWriter spillWriter;
+
+    LogBuffer(final int capacity, final Path spillDirectory) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The log buffer capacity must be greater than 0");
+        }
+        this.capacity = capacity;
+        this.entries = new AtomicReferenceArray<>(Math.min(capacity, INITIAL_SIZE));
+        if (spillDirectory != null) {
+            try {
+                final Path file = Files.createTempFile(spillDirectory, "etf-testrun-", ".log");
+                this.spillWriter = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+                this.spillFile = file;
+            } catch (final IOException e) {
+                logger.warn("Unable to create log spill file in {}, only the last {} log entries are retained",
+                        spillDirectory, capacity, e);
+            }
+        }
+    }
+
+    long count() {
+        return count;
+    }
+
+    synchronized void append(final List<String> newEntries) {
+        if (newEntries.isEmpty()) {
+            return;
+        }
+        long c = count;
+        spill(newEntries);
+        final AtomicReferenceArray<String> slots = grow(c + newEntries.size());
+        written = c + newEntries.size();
+        for (final String entry : newEntries) {
+            slots.set((int) (c++ % slots.length()), entry);
+        }
+        count = c;
+    }
+
+    /**
+     * The array is only grown before any entry has been overwritten, so the positions of the entries do not change.
+     */
+    private AtomicReferenceArray<String> grow(final long required) {
+        final AtomicReferenceArray<String> current = entries;
+        if (required <= current.length() || current.length() == capacity) {
+            return current;
+        }
+        final int size = (int) Math.min(capacity, Math.max(required, 2L * current.length()));
+        final AtomicReferenceArray<String> grown = new AtomicReferenceArray<>(size);
+        final long c = count;
+        for (int i = 0; i < c; i++) {
+            grown.set(i, current.get(i));
+        }
+        entries = grown;
+        return grown;
+    }
+
+    private void spill(final List<String> newEntries) {
+        if (spillWriter != null) {
+            try {
+                for (final String entry : newEntries) {
+                    spillWriter.write(escape(entry));
+                    spillWriter.newLine();
+                }
+                spillWriter.flush();
+            } catch (final IOException e) {
+                logger.warn("Writing log spill file {} failed, only the last {} log entries are retained",
+                        spillFile, capacity, e);
+                closeSpillWriter();
+                deleteSpillFile();
+            }
+        }
+    }
+
+    List<String> entries(final long fromIndex) {
+        // the array is read after the count, so it contains all counted entries
+        final long end = count;
+        final AtomicReferenceArray<String> slots = entries;
+        final long from = Math.max(0, Math.min(fromIndex, end));
+        final Path file = spillFile;
+        if (file != null && from < end - capacity) {
+            final List<String> spilled = spilled(file, from, end);
+            if (spilled != null) {
+                return spilled;
+            }
+        }
+        final long start = Math.max(from, end - capacity);
+        final List<String> copy = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            copy.add(slots.get((int) (i % slots.length())));
+        }
+        // the oldest copied entries may have been overwritten by an append that started in the meantime
+        final long overwritten = written - capacity - start;
+        if (overwritten > 0) {
+            if (file != null) {
+                final List<String> spilled = spilled(file, from, end);
+                if (spilled != null) {
+                    return spilled;
+                }
+            }
+            return new ArrayList<>(copy.subList((int) Math.min(overwritten, copy.size()), copy.size()));
+        }
+        return copy;
+    }
+
+    private List<String> spilled(final Path file, final long from, final long end) {
+        final List<String> spilled = new ArrayList<>((int) Math.min(end - from, Integer.MAX_VALUE));
+        try (final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            for (long i = 0; i < end; i++) {
+                final String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                if (i >= from) {
+                    spilled.add(unescape(line));
+                }
+            }
+            return spilled;
+        } catch (final NoSuchFileException e) {
+            // deleted concurrently by close()
+            return null;
+        } catch (final IOException e) {
+            logger.warn("Reading log spill file {} failed", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Closes and deletes the spill file. Afterwards only the entries retained in memory can be read.
+     */
+    synchronized void close() {
+        closeSpillWriter();
+        deleteSpillFile();
+    }
+
+    private void closeSpillWriter() {
+        if (spillWriter != null) {
+            try {
+                spillWriter.close();
+            } catch (final IOException ignore) {
+                // ignore
+            }
+            spillWriter = null;
+        }
+    }
+
+    private void deleteSpillFile() {
+        final Path file = spillFile;
+        if (file != null) {
+            spillFile = null;
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException e) {
+                logger.warn("Unable to delete log spill file {}", file, e);
+            }
+        }
+    }
+
+    private static String escape(final String entry) {
+        if (entry.indexOf('\\') == -1 && entry.indexOf('\n') == -1 && entry.indexOf('\r') == -1) {
+            return entry;
+        }
+        return entry.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(final String line) {
+        if (line.indexOf('\\') == -1) {
+            return line;
+        }
+        final StringBuilder builder = new StringBuilder(line.length());
+        for (int i = 0; i < line.length(); i++) {
+            final char c = line.charAt(i);
+            if (c == '\\' && i + 1 < line.length()) {
+                final char n = line.charAt(++i);
+                builder.append(n == 'n' ? '\n' : n == 'r' ? '\r' : n);
+            } else {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,114 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.util.*;
+
+import de.interactive_instruments.etf.client.MessageGroup;
+
+/**
+ * Groups the messages of Test Assertion Results by their translation template while the results are read.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class MessageGroups {
+
+    private final static int MAX_EXAMPLES = 10;
+
+    private final static class Group implements MessageGroup {
+        private final String templateRef;
+        private long count;
+        private final List<ResultMessage> examples = new ArrayList<>(1);
+        private final Set<String> labels = new LinkedHashSet<>();
+
+        private Group(final String templateRef) {
+            this.templateRef = templateRef;
+        }
+
+        private void addExample(final ResultMessage message) {
+            if (examples.size() < MAX_EXAMPLES) {
+                examples.add(message);
+            }
+        }
+
+        @Override
+        public String templateRef() {
+            return templateRef;
+        }
+
+        @Override
+        public long count() {
+            return count;
+        }
+
+        @Override
+        public List<Map<String, String>> exampleArguments() {
+            final List<Map<String, String>> arguments = new ArrayList<>(examples.size());
+            for (final ResultMessage example : examples) {
+                final Map<String, String> exampleArguments = new LinkedHashMap<>();
+                for (int i = 0; i < example.argumentCount(); i++) {
+                    final Object value = example.value(i);
+                    exampleArguments.put(example.token(i), value != null ? value.toString() : "");
+                }
+                arguments.add(Collections.unmodifiableMap(exampleArguments));
+            }
+            return Collections.unmodifiableList(arguments);
+        }
+
+        @Override
+        public Collection<String> assertionLabels() {
+            return Collections.unmodifiableCollection(labels);
+        }
+
+        @Override
+        public String toString() {
+            return templateRef + " (" + count + ")";
+        }
+    }
+
+    private final Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Adds the messages of a Test Assertion Result
+     */
+    void add(final List<ResultMessage> messages, final String label) {
+        for (final ResultMessage message : messages) {
+            final Group group = groups.computeIfAbsent(message.ref(), Group::new);
+            group.count++;
+            group.labels.add(label);
+            group.addExample(message);
+        }
+    }
+
+    /**
+     * Merges the groups of another object into this one
+     */
+    void addAll(final MessageGroups other) {
+        for (final Group otherGroup : other.groups.values()) {
+            final Group group = groups.computeIfAbsent(otherGroup.templateRef, Group::new);
+            group.count += otherGroup.count;
+            group.labels.addAll(otherGroup.labels);
+            for (final ResultMessage example : otherGroup.examples) {
+                group.addExample(example);
+            }
+        }
+    }
+
+    Collection<MessageGroup> groups() {
+        return Collections.unmodifiableCollection(groups.values());
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache for rendered messages, that is shared by all Test Run Results of an Endpoint.
+ *
+ * Messages are cached by the identity of the compiled translation template and the arguments of the message, so
+ * identical messages are rendered only once and share one String instance. Compiled templates are replaced if a
+ * Translation Template Bundle changes, which invalidates their entries implicitly.
+ *
+ * If the capacity is exceeded, a quarter of the entries is evicted in iteration order.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class MessageRenderCache {
+
+    private final static class Key {
+        private final Object template;
+        private final ResultMessage message;
+        private final int hash;
+
+        private Key(final Object template, final ResultMessage message) {
+            this.template = template;
+            this.message = message;
+            this.hash = 31 * System.identityHashCode(template) + message.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return template == other.template && message.equals(other.message);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final int capacity;
+    private final ConcurrentHashMap<Key, String> rendered;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * @param capacity
+     *            maximum number of cached messages, 0 to disable the cache
+     */
+    MessageRenderCache(final int capacity) {
+        this.capacity = capacity;
+        this.rendered = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * Returns the cached message or renders it
+     *
+     * @param template
+     *            compiled translation template that is used for rendering
+     * @param message
+     *            message with the arguments
+     * @param renderer
+     *            renders the message if it is not cached
+     * @return rendered message
+     */
+    String render(final Object template, final ResultMessage message, final Supplier<String> renderer) {
+        if (capacity == 0) {
+            return renderer.get();
+        }
+        final Key key = new Key(template, message);
+        final String cached = rendered.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        final String renderedMessage = renderer.get();
+        if (renderedMessage == null) {
+            return null;
+        }
+        final String previous = rendered.putIfAbsent(key, renderedMessage);
+        if (previous != null) {
+            return previous;
+        }
+        if (rendered.size() > capacity) {
+            evict();
+        }
+        return renderedMessage;
+    }
+
+    /**
+     * Number of cached messages
+     */
+    int size() {
+        return rendered.size();
+    }
+
+    private void evict() {
+        if (evicting.compareAndSet(false, true)) {
+            try {
+                final int target = capacity - capacity / 4;
+                final Iterator<Key> it = rendered.keySet().iterator();
+                while (rendered.size() > target && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
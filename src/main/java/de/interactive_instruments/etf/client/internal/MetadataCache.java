@@ -0,0 +1,326 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache for the metadata collections of an ETF instance.
+ *
+ * The response of a collection request is stored with its ETag and Last-Modified validators in a compact binary
+ * form, so that a new endpoint only needs to revalidate the collection with the server instead of downloading it.
+ * The binary form is a type-tagged encoding of the JSON values, in which all strings are stored only once and are
+ * referenced by their index. Cached files are read into memory at once.
+ *
+ * Each resource is stored in its own file, which is replaced atomically. Unreadable or corrupt files are ignored and
+ * deleted.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class MetadataCache {
+
+    private final static Logger logger = LoggerFactory.getLogger(MetadataCache.class);
+
+    private final static int MAGIC = 0x45544643;
+    private final static byte VERSION = 1;
+
+    private final static byte NULL = 0;
+    private final static byte TRUE = 1;
+    private final static byte FALSE = 2;
+    private final static byte INT = 3;
+    private final static byte LONG = 4;
+    private final static byte DOUBLE = 5;
+    private final static byte STRING = 6;
+    private final static byte ARRAY = 7;
+    private final static byte OBJECT = 8;
+    // other numbers, stored as text
+    private final static byte NUMBER = 9;
+    // maximum nesting of arrays and objects
+    private final static int MAX_DEPTH = 512;
+
+    private final Path directory;
+
+    /**
+     * A cached response with its validators
+     */
+    static final class Entry {
+        final String eTag;
+        final String lastModified;
+        final JSONObject body;
+
+        private Entry(final String eTag, final String lastModified, final JSONObject body) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+    }
+
+    MetadataCache(final Path directory) {
+        this.directory = Objects.requireNonNull(directory, "Cache directory not set");
+    }
+
+    /**
+     * The cache key depends on the URL and on the language, as the language is sent in the Accept-Language header
+     */
+    private Path file(final URI url, final Locale locale) {
+        final String key = url.toString() + " " + locale.getLanguage();
+        return directory.resolve("etf-metadata-" + UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8))
+                + ".bin");
+    }
+
+    /**
+     * Loads a cached response
+     *
+     * @return the cached response or null if the response is not cached or can not be read
+     */
+    Entry load(final URI url, final Locale locale) {
+        final Path file = file(url, locale);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            return new Decoder(ByteBuffer.wrap(Files.readAllBytes(file))).decode();
+        } catch (final IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable metadata cache file {}", file, e);
+            try {
+                Files.deleteIfExists(file);
+            } catch (final IOException ignore) {
+                // ignore
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Stores a response. Errors are logged and otherwise ignored.
+     */
+    void store(final URI url, final Locale locale, final String eTag, final String lastModified,
+            final JSONObject body) {
+        final Path file = file(url, locale);
+        Path tmpFile = null;
+        try {
+            Files.createDirectories(directory);
+            tmpFile = Files.createTempFile(directory, "etf-metadata-", ".tmp");
+            try (final DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                new Encoder(out).encode(eTag, lastModified, body);
+            }
+            try {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException e) {
+            logger.warn("Failed to write metadata cache file {}", file, e);
+            if (tmpFile != null) {
+                try {
+                    Files.deleteIfExists(tmpFile);
+                } catch (final IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    private static final class Encoder {
+        private final DataOutputStream out;
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        private Encoder(final DataOutputStream out) {
+            this.out = out;
+        }
+
+        void encode(final String eTag, final String lastModified, final JSONObject body) throws IOException {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            writeNullableString(eTag);
+            writeNullableString(lastModified);
+            writeValue(body);
+        }
+
+        private void writeNullableString(final String str) throws IOException {
+            out.writeBoolean(str != null);
+            if (str != null) {
+                writeString(str);
+            }
+        }
+
+        /**
+         * Writes the index of a known string or -1 followed by the UTF-8 bytes of a new string
+         */
+        private void writeString(final String str) throws IOException {
+            final Integer index = strings.get(str);
+            if (index != null) {
+                out.writeInt(index);
+            } else {
+                strings.put(str, strings.size());
+                final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(-1);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+        }
+
+        private void writeValue(final Object value) throws IOException {
+            if (value == null || JSONObject.NULL.equals(value)) {
+                out.writeByte(NULL);
+            } else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                out.writeByte(INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Number) {
+                out.writeByte(NUMBER);
+                writeString(value.toString());
+            } else if (value instanceof JSONArray) {
+                final JSONArray array = (JSONArray) value;
+                out.writeByte(ARRAY);
+                out.writeInt(array.length());
+                for (final Object item : array) {
+                    writeValue(item);
+                }
+            } else if (value instanceof JSONObject) {
+                final JSONObject object = (JSONObject) value;
+                out.writeByte(OBJECT);
+                out.writeInt(object.length());
+                for (final String key : object.keySet()) {
+                    writeString(key);
+                    writeValue(object.opt(key));
+                }
+            } else {
+                out.writeByte(STRING);
+                writeString(value.toString());
+            }
+        }
+    }
+
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private final List<String> strings = new ArrayList<>();
+        private int depth;
+
+        private Decoder(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        Entry decode() throws IOException {
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException("Unknown file format");
+            }
+            final String eTag = readNullableString();
+            final String lastModified = readNullableString();
+            return new Entry(eTag, lastModified, (JSONObject) readValue());
+        }
+
+        private String readNullableString() throws IOException {
+            return buffer.get() != 0 ? readString() : null;
+        }
+
+        private String readString() throws IOException {
+            final int index = buffer.getInt();
+            if (index >= 0) {
+                if (index >= strings.size()) {
+                    throw new IOException("Invalid string reference " + index);
+                }
+                return strings.get(index);
+            }
+            final byte[] bytes = new byte[readLength(1)];
+            buffer.get(bytes);
+            final String str = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(str);
+            return str;
+        }
+
+        /**
+         * Reads a length and checks it against the remaining bytes
+         *
+         * @param minBytesPerItem
+         *            minimum number of bytes that each counted item occupies
+         */
+        private int readLength(final int minBytesPerItem) throws IOException {
+            final int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining() / minBytesPerItem) {
+                throw new IOException("Invalid length " + length);
+            }
+            return length;
+        }
+
+        private Object readValue() throws IOException {
+            final byte type = buffer.get();
+            if ((type == ARRAY || type == OBJECT) && ++depth > MAX_DEPTH) {
+                throw new IOException("Nesting too deep");
+            }
+            switch (type) {
+            case NULL:
+                return JSONObject.NULL;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case NUMBER:
+                return JSONObject.stringToValue(readString());
+            case STRING:
+                return readString();
+            case ARRAY:
+                // each value has at least a type byte
+                final int length = readLength(1);
+                final JSONArray array = new JSONArray();
+                for (int i = 0; i < length; i++) {
+                    array.put(readValue());
+                }
+                depth--;
+                return array;
+            case OBJECT:
+                // each member has at least a string reference and a type byte
+                final int count = readLength(5);
+                final JSONObject object = new JSONObject();
+                for (int i = 0; i < count; i++) {
+                    final String key = readString();
+                    object.put(key, readValue());
+                }
+                depth--;
+                return object;
+            default:
+                throw new IOException("Unknown value type " + type);
+            }
+        }
+    }
+}
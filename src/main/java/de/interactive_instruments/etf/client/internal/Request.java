@@ -22,6 +22,9 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,7 +43,8 @@ abstract class Request {
     protected final int retryAttempts;
 
     final HttpRequest.Builder requestBuilder;
-    final HttpClient httpClient;
+    final SharedHttpClient httpClient;
+    private final InstanceCtx ctx;
 
     Request(final URI url, final InstanceCtx ctx) {
         retryDelay = ctx.retryDelay;
@@ -53,16 +57,8 @@ abstract class Request {
                 .header("Accept-Language", ctx.locale.getLanguage())
                 .header("User-Agent", USER_AGENT_HEADER)
                 .header("ETF-Client-Session-ID", ctx.sessionId);
-
-        final HttpClient.Builder clientBuilder = HttpClient.newBuilder()
-                .executor(ctx.executor())
-                .version(HttpClient.Version.HTTP_1_1)
-                .followRedirects(HttpClient.Redirect.NORMAL);
-        if (ctx.auth != null) {
-            this.httpClient = clientBuilder.authenticator(ctx.auth).build();
-        } else {
-            this.httpClient = clientBuilder.build();
-        }
+        this.httpClient = ctx.httpClient();
+        this.ctx = ctx;
     }
 
     final void checkResponse(final HttpResponse response, final int... expectedCodes) throws RemoteInvocationException, IOException {
@@ -75,6 +71,60 @@ abstract class Request {
         else throw new RemoteInvocationException(response);
     }
 
+    /**
+     * Send the request without blocking the calling thread.
+     *
+     * Connection losses are retried like the blocking requests, but the retry delay is awaited with the scheduler of the
+     * endpoint instead of a sleeping thread.
+     *
+     * @return a future that completes with the response or exceptionally with a {@link RemoteInvocationException}
+     */
+    final <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
+            final HttpResponse.BodyHandler<T> bodyHandler, final int... expectedCodes) {
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        sendAsync(request, bodyHandler, expectedCodes, retryAttempts, result);
+        return result;
+    }
+
+    private <T> void sendAsync(final HttpRequest request, final HttpResponse.BodyHandler<T> bodyHandler,
+            final int[] expectedCodes, final int attempts, final CompletableFuture<HttpResponse<T>> result) {
+        httpClient.sendAsync(request, bodyHandler).whenComplete((response, e) -> {
+            try {
+                if (e != null) {
+                    final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                checkResponse(response, expectedCodes);
+                result.complete(response);
+            } catch (final IOException ioe) {
+                if (attempts == 0) {
+                    result.completeExceptionally(new RemoteInvocationException(ioe));
+                    return;
+                }
+                try {
+                    ctx.scheduleRetry(() -> {
+                        try {
+                            sendAsync(request, bodyHandler, expectedCodes, attempts - 1, result);
+                        } catch (final RuntimeException rte) {
+                            // for instance if the endpoint has been closed in the meantime
+                            result.completeExceptionally(rte);
+                        }
+                    }, retryDelay, result);
+                } catch (final RejectedExecutionException rejected) {
+                    result.completeExceptionally(new RemoteInvocationException(ioe));
+                }
+            } catch (final RemoteInvocationException rie) {
+                result.completeExceptionally(rie);
+            } catch (final RuntimeException rte) {
+                result.completeExceptionally(rte);
+            }
+        });
+    }
+
     protected void delay() throws RemoteInvocationException {
         try {
             Thread.sleep(retryDelay.toMillis());
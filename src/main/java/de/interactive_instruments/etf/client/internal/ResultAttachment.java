@@ -0,0 +1,83 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.net.URI;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.interactive_instruments.etf.client.RemoteInvocationException;
+
+/**
+ * An attachment of a Test Task Result, that is referenced by Test Step Results.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class ResultAttachment {
+
+    String label;
+    String mimeType;
+    String embeddedData;
+    String href;
+
+    /**
+     * Decodes embedded data and fetches referenced plain text data
+     *
+     * @return unmodifiable map with the attachment labels as keys
+     */
+    static Map<String, String> resolve(final InstanceCtx ctx, final List<ResultAttachment> attachments) {
+        final Map<String, String> attachmentMap = new HashMap<>();
+        for (final ResultAttachment attachment : attachments) {
+            attachment.addTo(ctx, attachmentMap);
+        }
+        return Collections.unmodifiableMap(attachmentMap);
+    }
+
+    /**
+     * @return true if one of the attachments is fetched from the remote instance when it is resolved
+     */
+    static boolean fetched(final List<ResultAttachment> attachments) {
+        for (final ResultAttachment attachment : attachments) {
+            if (attachment.embeddedData == null && attachment.href != null && "text/plain".equals(attachment.mimeType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addTo(final InstanceCtx ctx, final Map<String, String> attachmentMap) {
+        if (embeddedData != null) {
+            final String decodedStr = new String(Base64.getDecoder().decode(embeddedData));
+            attachmentMap.put(label, decodedStr);
+        } else if (href != null) {
+            if ("text/plain".equals(mimeType)) {
+                final URI uri = URI.create(href);
+                try {
+                    final String value = new SimpleGetRequest(uri, ctx).query();
+                    attachmentMap.put(label, value);
+                } catch (RemoteInvocationException e) {
+                    attachmentMap.put(label, href);
+                }
+            } else {
+                attachmentMap.put(label, href);
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A not yet translated message of a Test Result: the reference to the translation template and the translation
+ * arguments.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class ResultMessage {
+
+    private final String ref;
+    private final List<String> tokens;
+    private final List<Object> values;
+
+    ResultMessage(final String ref, final List<String> tokens, final List<Object> values) {
+        this.ref = ref;
+        this.tokens = tokens;
+        this.values = values;
+    }
+
+    static class Builder {
+        private String ref;
+        private List<String> tokens;
+        private List<Object> values;
+
+        Builder ref(final String ref) {
+            this.ref = ref;
+            return this;
+        }
+
+        /**
+         * Add a translation argument
+         *
+         * @param token
+         *            the token or null if the argument does not provide one
+         * @param value
+         *            the String, Boolean or Number value or null if the argument does not provide a value
+         */
+        Builder argument(final String token, final Object value) {
+            if (tokens == null) {
+                tokens = new ArrayList<>(4);
+                values = new ArrayList<>(4);
+            }
+            tokens.add(token);
+            values.add(value);
+            return this;
+        }
+
+        ResultMessage build() {
+            return new ResultMessage(ref, tokens != null ? tokens : Collections.emptyList(),
+                    values != null ? values : Collections.emptyList());
+        }
+    }
+
+    String ref() {
+        return ref;
+    }
+
+    boolean hasArguments() {
+        return !tokens.isEmpty();
+    }
+
+    int argumentCount() {
+        return tokens.size();
+    }
+
+    String token(final int i) {
+        return tokens.get(i);
+    }
+
+    Object value(final int i) {
+        return values.get(i);
+    }
+
+    /**
+     * Returns the index of the last argument with the token or -1
+     */
+    int indexOf(final String token) {
+        return tokens.lastIndexOf(token);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ResultMessage)) {
+            return false;
+        }
+        final ResultMessage other = (ResultMessage) o;
+        return Objects.equals(ref, other.ref) && tokens.equals(other.tokens) && values.equals(other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ref, tokens, values);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("{ref=").append(ref);
+        for (int i = 0; i < tokens.size(); i++) {
+            builder.append(", ").append(tokens.get(i)).append('=').append(values.get(i));
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,618 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import de.interactive_instruments.etf.client.EtfIllegalStateException;
+import de.interactive_instruments.etf.client.MessageGroup;
+import de.interactive_instruments.etf.client.ReferenceError;
+import de.interactive_instruments.etf.client.ResultStatus;
+import de.interactive_instruments.etf.client.TestResult;
+import de.interactive_instruments.etf.client.TestTaskResult;
+
+/**
+ * Compact storage for all results of a Test Run.
+ *
+ * The properties of the results are kept in primitive arrays (struct of arrays), which are indexed by the result
+ * index. Labels and descriptions are interned and referenced by their index in a string table. The children of a
+ * result are stored as a range in a shared index array. The result objects that are returned to the user are
+ * flyweights, that only hold the store and the result index.
+ *
+ * Results are added bottom-up: the children of a result must be added before the result itself. The store must not
+ * be modified after {@link #trim()} has been called. Results can already be read before, as long as the number of
+ * added results does not exceed the initial capacity.
+ *
+ * Messages are kept untranslated and are rendered for each requested language on the first access. The rendered
+ * messages are cached per language, concurrent first accesses may translate a message more than once but all threads
+ * get the same instance. Attachments are resolved on the first access as well. {@link #resolve(ForkJoinPool)}
+ * translates all messages into the language of the Endpoint and resolves all attachments in advance, so that errors
+ * are reported immediately.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class ResultStore {
+
+    final static byte TEST_TASK_RESULT = 0;
+    final static byte TEST_MODULE_RESULT = 1;
+    final static byte TEST_CASE_RESULT = 2;
+    final static byte TEST_STEP_RESULT = 3;
+    final static byte TEST_ASSERTION_RESULT = 4;
+
+    private final static ResultStatus[] statusValues = ResultStatus.values();
+    // minimum number of results that are resolved in parallel
+    private final static int PARALLEL_THRESHOLD = 1024;
+
+    /**
+     * Growable int array that is used to collect the indices of the children of a result
+     */
+    static final class IntList {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(final int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(final IntList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(final int i) {
+            return values[i];
+        }
+    }
+
+    private int size;
+    private byte[] types;
+    private byte[] statuses;
+    private long[] startTimes;
+    private long[] durations;
+    private int[] zones;
+    private int[] labels;
+    private int[] descriptions;
+    private int[] contexts;
+    private int[] childStarts;
+    private int[] childCounts;
+    private int[] messageStarts;
+    private int[] messageCounts;
+
+    private int[] children;
+    private int childrenSize;
+    // untranslated messages
+    private ResultMessage[] messages;
+    private int messagesSize;
+    // language to translated messages by result index
+    private final Map<String, AtomicReferenceArray<Collection<String>>> translatedMessages = new ConcurrentHashMap<>();
+
+    // interned labels and descriptions
+    private String[] strings;
+    private int stringsSize;
+    private Map<String, Integer> stringIndex = new HashMap<>();
+
+    private final List<ZoneId> zoneTable = new ArrayList<>(1);
+    private final List<AbstractResult.ResultCtx> contextTable = new ArrayList<>(1);
+
+    // sparse properties
+    private final Map<Integer, Map<String, String>> attachments = new ConcurrentHashMap<>();
+    private final Map<Integer, List<ResultAttachment>> deferredAttachments = new HashMap<>();
+    private final Map<Integer, String> ids = new HashMap<>();
+    private final Map<Integer, String> executableTestSuiteEids = new HashMap<>();
+    private final Map<Integer, String> errorMessages = new HashMap<>();
+    private final Map<Integer, MessageGroups> messageGroups = new HashMap<>();
+
+    private final IntList testTaskResults = new IntList();
+
+    ResultStore() {
+        this(64);
+    }
+
+    /**
+     * @param capacity
+     *            initial number of results
+     */
+    ResultStore(final int capacity) {
+        types = new byte[capacity];
+        statuses = new byte[capacity];
+        startTimes = new long[capacity];
+        durations = new long[capacity];
+        zones = new int[capacity];
+        labels = new int[capacity];
+        descriptions = new int[capacity];
+        contexts = new int[capacity];
+        childStarts = new int[capacity];
+        childCounts = new int[capacity];
+        messageStarts = new int[capacity];
+        messageCounts = new int[capacity];
+        children = new int[capacity];
+        messages = new ResultMessage[capacity];
+        strings = new String[capacity * 2];
+    }
+
+    private void ensureCapacity() {
+        if (size == types.length) {
+            final int newLength = size * 2;
+            types = Arrays.copyOf(types, newLength);
+            statuses = Arrays.copyOf(statuses, newLength);
+            startTimes = Arrays.copyOf(startTimes, newLength);
+            durations = Arrays.copyOf(durations, newLength);
+            zones = Arrays.copyOf(zones, newLength);
+            labels = Arrays.copyOf(labels, newLength);
+            descriptions = Arrays.copyOf(descriptions, newLength);
+            contexts = Arrays.copyOf(contexts, newLength);
+            childStarts = Arrays.copyOf(childStarts, newLength);
+            childCounts = Arrays.copyOf(childCounts, newLength);
+            messageStarts = Arrays.copyOf(messageStarts, newLength);
+            messageCounts = Arrays.copyOf(messageCounts, newLength);
+        }
+    }
+
+    private int intern(final String str) {
+        final Integer existing = stringIndex.get(str);
+        if (existing != null) {
+            return existing;
+        }
+        if (stringsSize == strings.length) {
+            strings = Arrays.copyOf(strings, stringsSize * 2);
+        }
+        strings[stringsSize] = str;
+        stringIndex.put(str, stringsSize);
+        return stringsSize++;
+    }
+
+    private static <T> int indexOf(final List<T> table, final T value) {
+        for (int i = 0; i < table.size(); i++) {
+            if (table.get(i) == value || table.get(i).equals(value)) {
+                return i;
+            }
+        }
+        table.add(value);
+        return table.size() - 1;
+    }
+
+    /**
+     * Adds a result
+     *
+     * @param type
+     *            type of the result
+     * @param resultCtx
+     *            context of the Executable Test Suite that contains the referenced Test
+     * @param eidRef
+     *            ID of the Test in the Executable Test Suite
+     * @param status
+     *            status string
+     * @param startTimestamp
+     *            start time in ISO format
+     * @param duration
+     *            duration in milliseconds
+     * @param childIndices
+     *            indices of the children, that must have been added before, or null
+     * @return the index of the result
+     */
+    int add(final byte type, final AbstractResult.ResultCtx resultCtx, final String eidRef, final String status,
+            final String startTimestamp, final long duration, final IntList childIndices) {
+        ensureCapacity();
+        final int index = size;
+        types[index] = type;
+        statuses[index] = (byte) ResultStatus.fromString(status).ordinal();
+        final TemporalAccessor start = DateTimeFormatter.ISO_DATE_TIME.parse(startTimestamp);
+        startTimes[index] = Instant.from(start).toEpochMilli();
+        zones[index] = indexOf(zoneTable, ZoneId.from(start));
+        durations[index] = duration;
+
+        final EidIndex etsItems = resultCtx.etsMappings();
+        final int etsItem = etsItems.resolve(eidRef);
+        labels[index] = intern(etsItems.label(etsItem));
+        descriptions[index] = intern(etsItems.description(etsItem));
+        contexts[index] = indexOf(contextTable, resultCtx);
+
+        childStarts[index] = childrenSize;
+        if (childIndices != null) {
+            childCounts[index] = childIndices.size();
+            for (int i = 0; i < childIndices.size(); i++) {
+                if (childrenSize == children.length) {
+                    children = Arrays.copyOf(children, childrenSize * 2);
+                }
+                children[childrenSize++] = childIndices.get(i);
+            }
+        }
+
+        size++;
+        if (type == TEST_TASK_RESULT) {
+            testTaskResults.add(index);
+            executableTestSuiteEids.put(index, eidRef);
+        }
+        return index;
+    }
+
+    /**
+     * Sets the untranslated messages of a result
+     *
+     * @param id
+     *            ID of the result, used in error messages
+     */
+    void messages(final int index, final String id, final List<ResultMessage> resultMessages) {
+        if (resultMessages.isEmpty()) {
+            return;
+        }
+        if (id != null && resultMessages.size() > 1) {
+            ids.put(index, id);
+        }
+        messageStarts[index] = messagesSize;
+        messageCounts[index] = resultMessages.size();
+        for (final ResultMessage resultMessage : resultMessages) {
+            if (messagesSize == messages.length) {
+                messages = Arrays.copyOf(messages, messagesSize * 2);
+            }
+            messages[messagesSize++] = resultMessage;
+        }
+    }
+
+    /**
+     * Sets the unresolved attachments of a Test Step Result. A relabel attachment replaces the label of the result and
+     * is resolved immediately, so that reading the label never requires resolving the attachments.
+     */
+    void attachments(final int index, final List<ResultAttachment> resultAttachments) {
+        deferredAttachments.put(index, resultAttachments);
+        for (final ResultAttachment attachment : resultAttachments) {
+            if ("relabel".equals(attachment.label)) {
+                final String relabel = ResultAttachment.resolve(resultCtx(index).ctx,
+                        Collections.singletonList(attachment)).get("relabel");
+                if (relabel != null) {
+                    labels[index] = intern(relabel);
+                }
+            }
+        }
+    }
+
+    void errorMessage(final int index, final String errorMessage) {
+        errorMessages.put(index, errorMessage);
+    }
+
+    /**
+     * Sets the grouped messages of a Test Task Result
+     */
+    void messageGroups(final int index, final MessageGroups groups) {
+        messageGroups.put(index, groups);
+    }
+
+    /**
+     * Releases the build structures and shrinks the arrays to the used size
+     */
+    void trim() {
+        types = Arrays.copyOf(types, size);
+        statuses = Arrays.copyOf(statuses, size);
+        startTimes = Arrays.copyOf(startTimes, size);
+        durations = Arrays.copyOf(durations, size);
+        zones = Arrays.copyOf(zones, size);
+        labels = Arrays.copyOf(labels, size);
+        descriptions = Arrays.copyOf(descriptions, size);
+        contexts = Arrays.copyOf(contexts, size);
+        childStarts = Arrays.copyOf(childStarts, size);
+        childCounts = Arrays.copyOf(childCounts, size);
+        messageStarts = Arrays.copyOf(messageStarts, size);
+        messageCounts = Arrays.copyOf(messageCounts, size);
+        children = Arrays.copyOf(children, childrenSize);
+        messages = Arrays.copyOf(messages, messagesSize);
+        strings = Arrays.copyOf(strings, stringsSize);
+        stringIndex = null;
+    }
+
+    /**
+     * Resolves the subtree of a Test Task, Test Module or Test Case Result in parallel, one subtask per child
+     */
+    private final class ResolveAction extends RecursiveAction {
+        private static final long serialVersionUID = 8204557132683930468L;
+        private final int index;
+
+        private ResolveAction(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        protected void compute() {
+            if (types[index] == TEST_TASK_RESULT || types[index] == TEST_MODULE_RESULT
+                    || types[index] == TEST_CASE_RESULT) {
+                final int count = childCounts[index];
+                final List<ResolveAction> actions = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    actions.add(new ResolveAction(child(index, i)));
+                }
+                invokeAll(actions);
+                resolve(index);
+            } else {
+                resolveSubtree(index);
+            }
+        }
+    }
+
+    /**
+     * Translates the messages of all results into the language of the Endpoint and resolves all attachments. Large
+     * results are split at Test Task, Test Module and Test Case Results and are resolved in parallel, if a pool is
+     * passed. Attachments that are fetched from the remote instance are resolved in a
+     * {@link ForkJoinPool#managedBlock(ForkJoinPool.ManagedBlocker) managed block}, so that the pool can compensate
+     * for the blocked worker.
+     *
+     * Must be called after {@link #trim()}.
+     *
+     * @param pool
+     *            pool for resolving the results in parallel or null
+     * @throws ReferenceError
+     *             if one of the messages can not be translated
+     */
+    void resolve(final ForkJoinPool pool) {
+        if (pool != null && size >= PARALLEL_THRESHOLD) {
+            final List<ResolveAction> actions = new ArrayList<>(testTaskResults.size());
+            for (int i = 0; i < testTaskResults.size(); i++) {
+                actions.add(new ResolveAction(testTaskResults.get(i)));
+            }
+            pool.invoke(new RecursiveAction() {
+                private static final long serialVersionUID = -2634817560420196275L;
+
+                @Override
+                protected void compute() {
+                    invokeAll(actions);
+                }
+            });
+        } else {
+            for (int i = 0; i < testTaskResults.size(); i++) {
+                resolveSubtree(testTaskResults.get(i));
+            }
+        }
+    }
+
+    private void resolveSubtree(final int index) {
+        final int count = childCounts[index];
+        for (int i = 0; i < count; i++) {
+            resolveSubtree(child(index, i));
+        }
+        resolve(index);
+    }
+
+    private void resolve(final int index) {
+        messages(index);
+        if (types[index] == TEST_STEP_RESULT) {
+            final List<ResultAttachment> deferred = deferredAttachments.get(index);
+            if (deferred != null && ResultAttachment.fetched(deferred)) {
+                final AttachmentBlocker blocker = new AttachmentBlocker(index);
+                try {
+                    ForkJoinPool.managedBlock(blocker);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new EtfIllegalStateException("Interrupted while resolving attachments", e);
+                }
+            } else {
+                attachments(index);
+            }
+        }
+    }
+
+    /**
+     * Resolves the attachments of a Test Step Result, which blocks while they are fetched
+     */
+    private final class AttachmentBlocker implements ForkJoinPool.ManagedBlocker {
+        private final int index;
+
+        private AttachmentBlocker(final int index) {
+            this.index = index;
+        }
+
+        @Override
+        public boolean block() {
+            attachments(index);
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return attachments.containsKey(index);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    byte type(final int index) {
+        return types[index];
+    }
+
+    ResultStatus status(final int index) {
+        return statusValues[statuses[index]];
+    }
+
+    ZonedDateTime startDate(final int index) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(startTimes[index]), zoneTable.get(zones[index]));
+    }
+
+    long duration(final int index) {
+        return durations[index];
+    }
+
+    /**
+     * The label of the Test in the Executable Test Suite or the value of the relabel attachment
+     */
+    String label(final int index) {
+        return strings[labels[index]];
+    }
+
+    String description(final int index) {
+        return strings[descriptions[index]];
+    }
+
+    AbstractResult.ResultCtx resultCtx(final int index) {
+        return contextTable.get(contexts[index]);
+    }
+
+    String executableTestSuiteEid(final int index) {
+        return executableTestSuiteEids.get(index);
+    }
+
+    String errorMessage(final int index) {
+        return errorMessages.get(index);
+    }
+
+    Collection<MessageGroup> messageGroups(final int index) {
+        final MessageGroups groups = messageGroups.get(index);
+        return groups != null ? groups.groups() : Collections.emptyList();
+    }
+
+    Map<String, String> attachments(final int index) {
+        final Map<String, String> resolved = attachments.get(index);
+        if (resolved != null) {
+            return resolved;
+        }
+        final List<ResultAttachment> deferred = deferredAttachments.get(index);
+        if (deferred == null) {
+            return Collections.emptyMap();
+        }
+        // not resolved in computeIfAbsent(), as referenced attachments are fetched from the remote instance
+        final Map<String, String> attachmentMap = ResultAttachment.resolve(resultCtx(index).ctx, deferred);
+        final Map<String, String> previous = attachments.putIfAbsent(index, attachmentMap);
+        return previous != null ? previous : attachmentMap;
+    }
+
+    /**
+     * Estimates the number of results in the subtree of a result, including the result itself. As results are added
+     * bottom-up, the subtree is usually stored in the range that ends with the result.
+     */
+    int subtreeSizeEstimate(final int index) {
+        int first = index;
+        while (childCounts[first] > 0) {
+            first = child(first, 0);
+        }
+        return index - first + 1;
+    }
+
+    int childCount(final int index) {
+        return childCounts[index];
+    }
+
+    int child(final int index, final int childNo) {
+        return children[childStarts[index] + childNo];
+    }
+
+    Collection<String> messages(final int index) {
+        return messages(index, resultCtx(index).ctx.locale);
+    }
+
+    Collection<String> messages(final int index, final Locale locale) {
+        final int count = messageCounts[index];
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        final String language = locale.getLanguage();
+        final AtomicReferenceArray<Collection<String>> languageMessages = translatedMessages.computeIfAbsent(
+                language, l -> new AtomicReferenceArray<>(types.length));
+        final Collection<String> translated = languageMessages.get(index);
+        if (translated != null) {
+            return translated;
+        }
+        final int start = messageStarts[index];
+        final List<ResultMessage> resultMessages = Arrays.asList(messages).subList(start, start + count);
+        final Collection<String> newTranslated = resultCtx(index).translate(language, ids.get(index), resultMessages);
+        return languageMessages.compareAndSet(index, null, newTranslated) ? newTranslated
+                : languageMessages.get(index);
+    }
+
+    /**
+     * Returns the flyweight object for a result
+     */
+    TestResult result(final int index) {
+        switch (types[index]) {
+        case TEST_TASK_RESULT:
+            return new TestTaskResultImpl(this, index);
+        case TEST_MODULE_RESULT:
+            return new TestModuleResultImpl(this, index);
+        case TEST_CASE_RESULT:
+            return new TestCaseResultImpl(this, index);
+        case TEST_STEP_RESULT:
+            return new TestStepResultImpl(this, index);
+        default:
+            return new TestAssertionResultImpl(this, index);
+        }
+    }
+
+    /**
+     * Returns an unmodifiable list view of the children of a result
+     *
+     * @param type
+     *            type of the children
+     */
+    <T extends TestResult> List<T> children(final int index, final Class<T> type) {
+        final int count = childCounts[index];
+        if (count == 0) {
+            return Collections.emptyList();
+        }
+        return new ResultList<>(type, childStarts[index], count);
+    }
+
+    List<TestTaskResult> testTaskResults() {
+        return new AbstractList<TestTaskResult>() {
+            @Override
+            public TestTaskResult get(final int i) {
+                return (TestTaskResult) result(testTaskResults.get(i));
+            }
+
+            @Override
+            public int size() {
+                return testTaskResults.size();
+            }
+        };
+    }
+
+    private final class ResultList<T extends TestResult> extends AbstractList<T> implements RandomAccess {
+        private final Class<T> type;
+        private final int start;
+        private final int count;
+
+        private ResultList(final Class<T> type, final int start, final int count) {
+            this.type = type;
+            this.start = start;
+            this.count = count;
+        }
+
+        @Override
+        public T get(final int i) {
+            Objects.checkIndex(i, count);
+            return type.cast(result(children[start + i]));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Authenticator;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import de.interactive_instruments.etf.client.EtfIllegalStateException;
+
+/**
+ * One keep-alive HTTP client that is shared by all requests of an endpoint.
+ *
+ * The JDK client keeps idle HTTP/1.1 connections in an internal pool. The number of connections that are used
+ * concurrently by one endpoint is limited with a semaphore, as the JDK client does not provide a per-client limit.
+ * Asynchronous requests do not block while waiting for a free connection, they are queued and sent as soon as a
+ * connection is released. A connection is released when the response body has been received completely, so a body
+ * that is streamed with an InputStream keeps its connection until the stream is read completely or closed.
+ *
+ * The JVM-wide properties of the JDK client are not changed. The idle timeout is handled on a best effort basis: if
+ * no request has been sent within the timeout and no request is in progress, the next request is sent with a new
+ * client, so that the idle connections of the previous client are no longer used and are closed by the JDK once the
+ * previous client is unreachable.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class SharedHttpClient {
+
+    private volatile HttpClient httpClient;
+    private final HttpClient.Builder clientBuilder;
+    private final Semaphore connections;
+    private final int maxConnections;
+    // 0 if idle connections are not discarded
+    private final long idleTimeoutNanos;
+    private volatile long lastUse = System.nanoTime();
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+    private final String sessionId;
+
+    SharedHttpClient(final ExecutorService executor, final Authenticator auth, final String sessionId,
+            final int maxConnections, final Duration idleTimeout) {
+        this.sessionId = sessionId;
+        if (maxConnections < 1) {
+            throw new IllegalArgumentException("The maximum number of connections must be greater than 0");
+        }
+        this.connections = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.idleTimeoutNanos = idleTimeout != null ? idleTimeout.toNanos() : 0;
+        this.clientBuilder = HttpClient.newBuilder()
+                .executor(executor)
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (auth != null) {
+            this.clientBuilder.authenticator(auth);
+        }
+        this.httpClient = this.clientBuilder.build();
+    }
+
+    private HttpClient client() {
+        HttpClient client = this.httpClient;
+        if (client == null) {
+            throw new EtfIllegalStateException("The connection to the endpoint with session ID '"
+                    + this.sessionId + "' is closed");
+        }
+        final long now = System.nanoTime();
+        if (idleTimeoutNanos > 0 && now - lastUse > idleTimeoutNanos) {
+            client = renew(client);
+        }
+        lastUse = now;
+        return client;
+    }
+
+    /**
+     * Replaces an idle client, if no request is in progress and no response body is being streamed. The replaced client is not closed, as another thread
+     * may already use it for a new request.
+     */
+    private synchronized HttpClient renew(final HttpClient idleClient) {
+        if (this.httpClient == idleClient && connections.availablePermits() == maxConnections && pending.isEmpty()) {
+            this.httpClient = clientBuilder.build();
+        }
+        final HttpClient client = this.httpClient;
+        if (client == null) {
+            throw new EtfIllegalStateException("The connection to the endpoint with session ID '"
+                    + this.sessionId + "' is closed");
+        }
+        return client;
+    }
+
+    <T> HttpResponse<T> send(final HttpRequest request, final HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        final HttpClient client = client();
+        connections.acquire();
+        final Permit permit = new Permit();
+        try {
+            final HttpResponse<T> response = client.send(request, permit.wrap(bodyHandler));
+            if (!(response.body() instanceof InputStream)) {
+                permit.release();
+            }
+            return response;
+        } catch (final IOException | InterruptedException | RuntimeException e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(final HttpRequest request,
+            final HttpResponse.BodyHandler<T> bodyHandler) {
+        final HttpClient client = client();
+        final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        pending.add(() -> {
+            final Permit permit = new Permit();
+            try {
+                client.sendAsync(request, permit.wrap(bodyHandler)).whenComplete((response, e) -> {
+                    if (e != null) {
+                        permit.release();
+                        result.completeExceptionally(e);
+                    } else {
+                        if (!(response.body() instanceof InputStream)) {
+                            permit.release();
+                        }
+                        result.complete(response);
+                    }
+                });
+            } catch (final RuntimeException e) {
+                permit.release();
+                result.completeExceptionally(e);
+            }
+        });
+        dispatch();
+        return result;
+    }
+
+    /**
+     * The connection that is used by one request. It is released when the body has been received, the body
+     * subscription is cancelled, for instance by closing a streamed body, or the request fails.
+     */
+    private final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                SharedHttpClient.this.release();
+            }
+        }
+
+        <T> HttpResponse.BodyHandler<T> wrap(final HttpResponse.BodyHandler<T> bodyHandler) {
+            return responseInfo -> new ReleasingBodySubscriber<>(bodyHandler.apply(responseInfo), this);
+        }
+    }
+
+    private static final class ReleasingBodySubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final Permit permit;
+
+        private ReleasingBodySubscriber(final HttpResponse.BodySubscriber<T> delegate, final Permit permit) {
+            this.delegate = delegate;
+            this.permit = permit;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            delegate.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    permit.release();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(final List<ByteBuffer> item) {
+            delegate.onNext(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            permit.release();
+            delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            permit.release();
+            delegate.onComplete();
+        }
+    }
+
+    private void dispatch() {
+        while (!pending.isEmpty() && connections.tryAcquire()) {
+            final Runnable next = pending.poll();
+            if (next != null) {
+                next.run();
+            } else {
+                connections.release();
+            }
+        }
+    }
+
+    private void release() {
+        connections.release();
+        dispatch();
+    }
+
+    synchronized void close() {
+        final HttpClient client = this.httpClient;
+        this.httpClient = null;
+        // Java 21 and later release the connections explicitly, older versions once the client is unreachable
+        if (client instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) client).close();
+            } catch (final Exception ignore) {
+                // ignore
+            }
+        }
+    }
+}
@@ -34,7 +34,7 @@ class SimpleGetRequest extends Request {
         super(url, ctx);
     }
 
-    synchronized String query() throws RemoteInvocationException {
+    String query() throws RemoteInvocationException {
         final HttpRequest request = this.requestBuilder.copy().GET().build();
         final HttpResponse.BodyHandler<String> bodyHandler = HttpResponse.BodyHandlers.ofString();
         HttpResponse<String> response = null;
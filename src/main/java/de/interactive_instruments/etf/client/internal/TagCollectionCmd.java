@@ -60,21 +60,23 @@ class TagCollectionCmd {
 
     private final JsonGetRequest apiCall;
     private final InstanceCtx ctx;
-    private TagCollection cachedCollection;
+    private final CollectionCache<TagCollection> cache;
 
     TagCollectionCmd(final InstanceCtx ctx) {
         this.ctx = ctx;
-        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx);
+        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx, true);
+        this.cache = new CollectionCache<>(ctx);
     }
 
-    synchronized EtfCollection<Tag> query() throws RemoteInvocationException {
-        if (apiCall.upToDate()) {
-            return cachedCollection;
-        } else {
-            final JSONArray result = apiCall.query().getJSONObject("EtfItemCollection").getJSONObject("tags")
+    EtfCollection<Tag> query() throws RemoteInvocationException {
+        return cache.get(cachedCollection -> {
+            final JSONObject response = apiCall.queryIfModified(cachedCollection != null);
+            if (response == null) {
+                return cachedCollection;
+            }
+            final JSONArray result = response.getJSONObject("EtfItemCollection").getJSONObject("tags")
                     .getJSONArray("Tag");
-            cachedCollection = new TagCollection(this.ctx, result);
-        }
-        return cachedCollection;
+            return new TagCollection(this.ctx, result);
+        });
     }
 }
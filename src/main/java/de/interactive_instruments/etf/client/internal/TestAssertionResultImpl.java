@@ -16,34 +16,19 @@
  */
 package de.interactive_instruments.etf.client.internal;
 
-import java.util.Collections;
-
-import org.json.JSONObject;
-
 import de.interactive_instruments.etf.client.TestAssertionResult;
-import de.interactive_instruments.etf.client.TestResult;
 
 /**
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
 final class TestAssertionResultImpl extends AbstractTestResultMessageHolder implements TestAssertionResult {
 
-    TestAssertionResultImpl(final ResultCtx resultCtx) {
-        super(resultCtx);
-    }
-
-    @Override
-    TestResult doCreateChild(final JSONObject childJson) {
-        throw new UnsupportedOperationException();
+    TestAssertionResultImpl(final ResultStore store, final int index) {
+        super(store, index);
     }
 
     @Override
     public String type() {
         return "TestAssertionResult";
     }
-
-    @Override
-    public Iterable<? extends TestResult> children() {
-        return Collections.emptyList();
-    }
 }
@@ -16,98 +16,29 @@
  */
 package de.interactive_instruments.etf.client.internal;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-
-import org.json.JSONObject;
 
 import de.interactive_instruments.etf.client.TestCaseResult;
-import de.interactive_instruments.etf.client.TestResult;
 import de.interactive_instruments.etf.client.TestStepResult;
 
 /**
+ * The Test Step Results of a Test Case Result are followed by the Test Step Results they invoked.
+ *
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
-class TestCaseResultImpl extends AbstractResult implements TestCaseResult {
-
-    private final Collection<TestStepResult> testStepResults;
-    private final static String TEST_STEP_RESULT = "TestStepResult";
-    private final static String TEST_CASE_RESULT = "TestCaseResult";
-    private final static String TEST_STEP_RESULTS = "testStepResults";
-    private final static String INVOKED_TESTS = "invokedTests";
-
-    TestCaseResultImpl(final ResultCtx resultCtx) {
-        super(resultCtx);
-
-        testStepResults = (Collection<TestStepResult>) createTestStepResults(resultCtx.jsonObj);
-    }
-
-    private Collection<? extends TestResult> createTestStepResults(final JSONObject jsonObj) {
-        if (jsonObj.isNull(TEST_STEP_RESULTS)) {
-            return Collections.emptyList();
-        }
-        final Collection<JSONObject> childCollection = new JSONObjectOrArray(jsonObj.getJSONObject(TEST_STEP_RESULTS))
-                .get(TEST_STEP_RESULT);
-        final List<TestResult> testStepResults = new ArrayList<>();
-        for (final JSONObject child : childCollection) {
-            if (!child.isNull("resultedFrom") && !child.getJSONObject("resultedFrom").isNull("ref")) {
-                testStepResults.add(doCreateChild(child));
-                if (!child.isNull("invokedTests")) {
-                    testStepResults.addAll(invokedTestStepResults(child));
-                }
-            }
-        }
-        return testStepResults;
-    }
+final class TestCaseResultImpl extends AbstractResult implements TestCaseResult {
 
-    private Collection<? extends TestResult> invokedTestStepResults(final JSONObject jsonObj) {
-        final List<TestResult> invokedTestStepResults = new ArrayList<>();
-        final JSONObjectOrArray invokedTests = new JSONObjectOrArray(jsonObj.getJSONObject(INVOKED_TESTS));
-        final Collection<JSONObject> invokedTestStepResultCollection;
-        if (invokedTests.has(TEST_STEP_RESULT)) {
-            invokedTestStepResultCollection = invokedTests.get(TEST_STEP_RESULT);
-        } else if (invokedTests.has(TEST_CASE_RESULT)) {
-            final Collection<JSONObject> testCaseResults = invokedTests.get(TEST_CASE_RESULT);
-            invokedTestStepResultCollection = new ArrayList<>();
-            for (final JSONObject testCaseResult : testCaseResults) {
-                if (testCaseResult.has(TEST_STEP_RESULTS)) {
-                    final Collection<JSONObject> testStepSubCollection = new JSONObjectOrArray(
-                            testCaseResult.getJSONObject(TEST_STEP_RESULTS)).get(TEST_STEP_RESULT);
-                    invokedTestStepResultCollection.addAll(testStepSubCollection);
-                }
-            }
-        } else {
-            invokedTestStepResultCollection = Collections.EMPTY_LIST;
-        }
-        for (final JSONObject invokedTest : invokedTestStepResultCollection) {
-            invokedTestStepResults.add(doCreateChild(invokedTest));
-            if (!invokedTest.isNull("invokedTests")) {
-                invokedTestStepResults.addAll(invokedTestStepResults(invokedTest));
-            }
-        }
-        return invokedTestStepResults;
-    }
-
-    @Override
-    TestResult doCreateChild(final JSONObject childJson) {
-        return new TestStepResultImpl(resultCtx.newChild(childJson));
+    TestCaseResultImpl(final ResultStore store, final int index) {
+        super(store, index);
     }
 
     @Override
     public Collection<TestStepResult> testStepResults() {
-        return this.testStepResults;
+        return store.children(index, TestStepResult.class);
     }
 
     @Override
     public String type() {
-        return TEST_CASE_RESULT;
+        return "TestCaseResult";
     }
-
-    @Override
-    public Iterable<? extends TestResult> children() {
-        return testStepResults;
-    }
-
 }
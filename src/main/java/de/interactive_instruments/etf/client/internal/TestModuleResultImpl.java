@@ -18,43 +18,25 @@ package de.interactive_instruments.etf.client.internal;
 
 import java.util.Collection;
 
-import org.json.JSONObject;
-
 import de.interactive_instruments.etf.client.TestCaseResult;
 import de.interactive_instruments.etf.client.TestModuleResult;
-import de.interactive_instruments.etf.client.TestResult;
 
 /**
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
-class TestModuleResultImpl extends AbstractResult implements TestModuleResult {
-
-    private final Collection<TestCaseResult> testCaseResults;
-
-    TestModuleResultImpl(final ResultCtx ctx) {
-        super(ctx);
+final class TestModuleResultImpl extends AbstractResult implements TestModuleResult {
 
-        testCaseResults = (Collection<TestCaseResult>) createChildren(
-                resultCtx.jsonObj, "testCaseResults", "TestCaseResult");
-    }
-
-    @Override
-    TestResult doCreateChild(final JSONObject childJson) {
-        return new TestCaseResultImpl(resultCtx.newChild(childJson));
+    TestModuleResultImpl(final ResultStore store, final int index) {
+        super(store, index);
     }
 
     @Override
     public Collection<TestCaseResult> testCaseResults() {
-        return this.testCaseResults;
+        return store.children(index, TestCaseResult.class);
     }
 
     @Override
     public String type() {
         return "TestModuleResult";
     }
-
-    @Override
-    public Iterable<? extends TestResult> children() {
-        return testCaseResults;
-    }
 }
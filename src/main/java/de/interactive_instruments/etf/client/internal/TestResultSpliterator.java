@@ -0,0 +1,144 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import de.interactive_instruments.etf.client.TestResult;
+
+/**
+ * Spliterator over the results of a store in pre-order, that splits at Test Task and Test Module Results.
+ *
+ * The spliterator covers a range of traversal entries (see {@link AbstractResult.TestResultIterator}). A range with
+ * multiple entries is split in half. A single Test Task or Test Module Result is split by replacing it with an entry
+ * for the result itself and the entries of its children. Once the traversal has started, the spliterator is no longer
+ * split.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class TestResultSpliterator implements Spliterator<TestResult> {
+
+    private final ResultStore store;
+    private int[] entries;
+    private int from;
+    private int to;
+    private long estimatedSize;
+    private AbstractResult.TestResultIterator iterator;
+
+    private TestResultSpliterator(final ResultStore store, final int[] entries, final int from, final int to,
+            final long estimatedSize) {
+        this.store = store;
+        this.entries = entries;
+        this.from = from;
+        this.to = to;
+        this.estimatedSize = estimatedSize;
+    }
+
+    TestResultSpliterator(final ResultStore store, final int[] entries) {
+        this(store, entries, 0, entries.length, estimateSize(store, entries));
+    }
+
+    /**
+     * Creates a spliterator over the subtrees of the results
+     */
+    static TestResultSpliterator of(final List<? extends TestResult> results) {
+        if (results.isEmpty()) {
+            return new TestResultSpliterator(null, new int[0], 0, 0, 0);
+        }
+        return new TestResultSpliterator(((AbstractResult) results.get(0)).store, AbstractResult.indices(results));
+    }
+
+    private static long estimateSize(final ResultStore store, final int[] entries) {
+        long size = 0;
+        for (final int entry : entries) {
+            size += entry < 0 ? 1 : store.subtreeSizeEstimate(entry);
+        }
+        return size;
+    }
+
+    private AbstractResult.TestResultIterator iterator() {
+        if (iterator == null) {
+            iterator = new AbstractResult.TestResultIterator(store, entries, from, to);
+        }
+        return iterator;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super TestResult> action) {
+        final AbstractResult.TestResultIterator it = iterator();
+        if (it.hasNext()) {
+            action.accept(it.next());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super TestResult> action) {
+        final AbstractResult.TestResultIterator it = iterator();
+        while (it.hasNext()) {
+            action.accept(it.next());
+        }
+    }
+
+    @Override
+    public Spliterator<TestResult> trySplit() {
+        if (iterator != null) {
+            return null;
+        }
+        if (to - from == 1) {
+            final int entry = entries[from];
+            if (entry < 0 || store.childCount(entry) == 0) {
+                return null;
+            }
+            final byte type = store.type(entry);
+            if (type != ResultStore.TEST_TASK_RESULT && type != ResultStore.TEST_MODULE_RESULT) {
+                return null;
+            }
+            // visit the result itself, followed by the subtrees of its children
+            final int childCount = store.childCount(entry);
+            final int[] expanded = new int[childCount + 1];
+            expanded[0] = ~entry;
+            for (int i = 0; i < childCount; i++) {
+                expanded[i + 1] = store.child(entry, i);
+            }
+            entries = expanded;
+            from = 0;
+            to = expanded.length;
+        } else if (to - from < 2) {
+            return null;
+        }
+        final int mid = (from + to) >>> 1;
+        final TestResultSpliterator prefix = new TestResultSpliterator(store, entries, from, mid,
+                estimatedSize / 2);
+        this.from = mid;
+        this.estimatedSize -= prefix.estimatedSize;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimatedSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL | IMMUTABLE;
+    }
+}
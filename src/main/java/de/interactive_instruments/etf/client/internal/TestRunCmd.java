@@ -24,6 +24,8 @@ import java.util.concurrent.*;
 import java.util.stream.Collectors;
 
 import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import de.interactive_instruments.etf.client.*;
 
@@ -34,6 +36,8 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
 
     public final static String PATH = "TestRuns/";
 
+    private final static Logger logger = LoggerFactory.getLogger(TestRunCmd.class);
+
     private static class ResultProxy implements TestRunResult {
         private final TestRun currentTestRun;
         private TestRunResult result;
@@ -76,6 +80,14 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
             return Collections.emptyList();
         }
 
+        @Override
+        public Collection<MessageGroup> messageGroups() {
+            if (result != null) {
+                return result.messageGroups();
+            }
+            return Collections.emptyList();
+        }
+
         @Override
         public void delete() throws RemoteInvocationException {
             if (result != null) {
@@ -90,64 +102,94 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
             }
             return Collections.emptyIterator();
         }
+
+        @Override
+        public Spliterator<TestResult> spliterator() {
+            if (result != null) {
+                return result.spliterator();
+            }
+            return Spliterators.emptySpliterator();
+        }
     }
 
     private final ResultProxy proxy = new ResultProxy(this);
-    private final List<String> logEntries = new ArrayList<>();
-    private double progress = 0;
-    private Future<TestRunResult> future;
-    private boolean canceled = false;
+    private final LogBuffer logBuffer;
+    private volatile double progress = 0;
+    private final CompletableFuture<TestRunResult> resultFuture = new CompletableFuture<>();
+    private volatile boolean canceled = false;
     private final TestRunObserver testRunObserver;
     private DeleteRequest deleteRequest;
     private URI reference;
     private final InstanceCtx ctx;
-    private Exception exception;
+    private volatile Exception exception;
 
     private TestRunCmd(final InstanceCtx ctx, final TestRunObserver testRunObserver) {
         this.testRunObserver = testRunObserver;
         this.ctx = ctx;
-    }
-
-    private TestRunResult resultProxy() {
-        return this.proxy;
+        this.logBuffer = new LogBuffer(ctx.logBufferCapacity, ctx.logSpillDirectory);
     }
 
     void finished(final TestRunResult result) {
         this.proxy.result = result;
+        this.logBuffer.close();
         if (this.testRunObserver != null) {
             this.testRunObserver.testRunFinished(result);
         }
+        this.ctx.deregisterRun(this);
+        this.resultFuture.complete(result);
     }
 
     void exception(final Exception exception) {
         if (exception != null) {
             this.exception = exception;
         }
+        this.logBuffer.close();
         if (this.testRunObserver != null) {
             this.testRunObserver.exceptionOccurred(exception);
         }
+        this.ctx.deregisterRun(this);
+        if (exception != null) {
+            this.resultFuture.completeExceptionally(exception);
+        }
     }
 
     void updateProgress(final double progress, final List<String> logEntries) {
         this.progress = progress;
-        this.logEntries.addAll(logEntries);
+        this.logBuffer.append(logEntries);
     }
 
     private DeleteRequest deleteRequest() {
         return deleteRequest;
     }
 
-    private void injectAfterStart(final Future<TestRunResult> future) {
-        this.future = future;
-        this.ctx.registerRun(this);
+    boolean canceled() {
+        return this.canceled;
     }
 
     @Override
     public void cancel() throws RemoteInvocationException {
-        if (!canceled) {
+        final DeleteRequest delete;
+        synchronized (this) {
+            if (canceled) {
+                return;
+            }
             canceled = true;
-            this.deleteRequest.delete();
-            this.ctx.deregisterRun(this);
+            // null if the start request is still pending, the run is then deleted in created()
+            delete = this.deleteRequest;
+        }
+        this.resultFuture.cancel(false);
+        this.logBuffer.close();
+        this.ctx.deregisterRun(this);
+        if (delete != null) {
+            delete.delete();
+        }
+    }
+
+    private void cancelQuietly() {
+        try {
+            cancel();
+        } catch (final RemoteInvocationException e) {
+            logger.warn("Could not delete the canceled Test Run {}", this.reference, e);
         }
     }
 
@@ -163,12 +205,26 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
 
     @Override
     public List<String> logEntries() {
-        return this.logEntries;
+        return this.logBuffer.entries(0);
+    }
+
+    @Override
+    public List<String> logEntries(final long fromIndex) {
+        return this.logBuffer.entries(fromIndex);
+    }
+
+    @Override
+    public long logEntryCount() {
+        return this.logBuffer.count();
     }
 
-    private String start(final Collection<ExecutableTestSuite> executableTestSuites, final TestObject testObject,
-            final RunParameters parameters)
-            throws RemoteInvocationException {
+    @Override
+    public CompletionStage<TestRunResult> resultAsync() {
+        return this.resultFuture.minimalCompletionStage();
+    }
+
+    private JSONObject startRequest(final Collection<ExecutableTestSuite> executableTestSuites,
+            final TestObject testObject, final RunParameters parameters) {
         final JSONObject startTestRequest = new JSONObjectWithOrderedAttributes();
         startTestRequest.putOnce("label",
                 "ETF-client " + ctx.sessionId + " run " + ctx.requestNo() + RunParametersImpl.labelSuffix(parameters));
@@ -178,31 +234,49 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
         startTestRequest.put("arguments",
                 RunParametersImpl.toJson(parameters, EtsCollectionCmd.mergeRunParameters(executableTestSuites)));
         startTestRequest.put("testObject", ((AdHocTestObjectImpl) testObject).toJson());
-
-        return start(startTestRequest);
+        return startTestRequest;
     }
 
-    private String start(final TestRunTemplate testRuntemplate, final TestObject testObject, final RunParameters parameters)
-            throws RemoteInvocationException {
+    private JSONObject startRequest(final TestRunTemplate testRuntemplate, final TestObject testObject,
+            final RunParameters parameters) {
         final JSONObject startTestRequest = new JSONObjectWithOrderedAttributes();
         startTestRequest.put("testRunTemplateId", testRuntemplate.eid());
         startTestRequest.putOnce("label",
                 "ETF-client " + ctx.sessionId + " run " + ctx.requestNo() + RunParametersImpl.labelSuffix(parameters));
         startTestRequest.put("arguments", RunParametersImpl.toJson(parameters, testRuntemplate.parameters()));
         startTestRequest.put("testObject", ((AdHocTestObjectImpl) testObject).toJson());
+        return startTestRequest;
+    }
 
-        return start(startTestRequest);
+    private JsonPostRequest startPostRequest() {
+        return new JsonPostRequest(URI.create(ctx.baseUrl.toString() + "/" + PATH.substring(0, PATH.length() - 1)), ctx);
     }
 
     private String start(final JSONObject startTestRequest) throws RemoteInvocationException {
-        final JsonPostRequest jsonPostRequest = new JsonPostRequest(
-                URI.create(ctx.baseUrl.toString() + "/" + PATH.substring(0, PATH.length() - 1)), ctx);
-        final JSONObject testRunCreatedResponse = jsonPostRequest.post(startTestRequest);
+        return created(startPostRequest().post(startTestRequest));
+    }
+
+    private CompletableFuture<String> startAsync(final JSONObject startTestRequest) {
+        return startPostRequest().postAsync(startTestRequest).thenApply(this::created);
+    }
+
+    private String created(final JSONObject testRunCreatedResponse) {
         final String eid = testRunCreatedResponse.getJSONObject("EtfItemCollection").getJSONObject("testRuns")
                 .getJSONObject("TestRun").getString("id");
-        this.reference = URI.create(ctx.baseUrl + "/" + PATH + eid);
-        this.deleteRequest = new DeleteRequest(this.reference, ctx);
-        return eid;
+        synchronized (this) {
+            this.reference = URI.create(ctx.baseUrl + "/" + PATH + eid);
+            this.deleteRequest = new DeleteRequest(this.reference, ctx);
+            if (!this.canceled) {
+                return eid;
+            }
+        }
+        // canceled while the start request was pending
+        try {
+            this.deleteRequest.delete();
+        } catch (final RemoteInvocationException e) {
+            logger.warn("Could not delete the canceled Test Run {}", this.reference, e);
+        }
+        throw new CancellationException("Test Run has been canceled");
     }
 
     @Override
@@ -215,8 +289,7 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
         }
         final TestRunResult result;
         try {
-            this.ctx.deregisterRun(this);
-            result = future.get();
+            result = resultFuture.get();
         } catch (InterruptedException e) {
             throw new EtfIllegalStateException("Test Run has been interrupted", e);
         } catch (CancellationException c) {
@@ -235,42 +308,88 @@ class TestRunCmd implements TestRunCloseable, Comparable<TestRunCmd> {
 
     static TestRun start(final InstanceCtx ctx, final ExecutorService executor,
             final Collection<ExecutableTestSuite> selectedExecutableTestSuites,
-            final Iterable<ExecutableTestSuite> allExecutableTestSuites,
+            final Map<String, AbstractResult.ResultCtx> resultCtxs,
             final TestObject testObject,
             final TestRunObserver testRunObserver,
             final RunParameters parameters) throws RemoteInvocationException {
         final TestRunCmd testRunCmd = new TestRunCmd(ctx, testRunObserver);
-        final String eid = testRunCmd.start(selectedExecutableTestSuites, testObject, parameters);
-        return prepareResultStructure(ctx, executor, allExecutableTestSuites, testRunCmd, eid);
+        final String eid = testRunCmd.start(testRunCmd.startRequest(selectedExecutableTestSuites, testObject, parameters));
+        return prepareResultStructure(ctx, executor, resultCtxs, testRunCmd, eid, null);
+    }
+
+    static CompletableFuture<TestRunResult> startAsync(final InstanceCtx ctx, final ExecutorService executor,
+            final Collection<ExecutableTestSuite> selectedExecutableTestSuites,
+            final Map<String, AbstractResult.ResultCtx> resultCtxs,
+            final TestObject testObject,
+            final RunParameters parameters,
+            final TestResultVisitor visitor) {
+        final TestRunCmd testRunCmd = new TestRunCmd(ctx, null);
+        final JSONObject startTestRequest = testRunCmd.startRequest(selectedExecutableTestSuites, testObject, parameters);
+        return testRunCmd.runAsync(executor, resultCtxs, startTestRequest, visitor);
     }
 
     static TestRun start(final InstanceCtx ctx, final ExecutorService executor,
             final TestRunTemplate selectedTestRunTemplate,
-            final Iterable<ExecutableTestSuite> allExecutableTestSuites,
+            final Map<String, AbstractResult.ResultCtx> resultCtxs,
             final TestObject testObject,
             final TestRunObserver testRunObserver,
             final RunParameters parameters) throws RemoteInvocationException {
         final TestRunCmd testRunCmd = new TestRunCmd(ctx, testRunObserver);
-        final String eid = testRunCmd.start(selectedTestRunTemplate, testObject, parameters);
-        return prepareResultStructure(ctx, executor, allExecutableTestSuites, testRunCmd, eid);
+        final String eid = testRunCmd.start(testRunCmd.startRequest(selectedTestRunTemplate, testObject, parameters));
+        return prepareResultStructure(ctx, executor, resultCtxs, testRunCmd, eid, null);
     }
 
-    private static TestRun prepareResultStructure(final InstanceCtx ctx, final ExecutorService executor,
-            final Iterable<ExecutableTestSuite> allExecutableTestSuites,
-            final TestRunCmd testRunCmd, final String eid) {
-        final Map<String, AbstractResult.ResultCtx> etsMap = new HashMap<>();
-        for (final ExecutableTestSuite executableTestSuite : allExecutableTestSuites) {
-            etsMap.put(executableTestSuite.eid(), new AbstractResult.ResultCtx(
-                    ctx, executableTestSuite));
-        }
+    static CompletableFuture<TestRunResult> startAsync(final InstanceCtx ctx, final ExecutorService executor,
+            final TestRunTemplate selectedTestRunTemplate,
+            final Map<String, AbstractResult.ResultCtx> resultCtxs,
+            final TestObject testObject,
+            final RunParameters parameters,
+            final TestResultVisitor visitor) {
+        final TestRunCmd testRunCmd = new TestRunCmd(ctx, null);
+        final JSONObject startTestRequest = testRunCmd.startRequest(selectedTestRunTemplate, testObject, parameters);
+        return testRunCmd.runAsync(executor, resultCtxs, startTestRequest, visitor);
+    }
+
+    /**
+     * Starts the Test Run and returns a future that cancels and deletes the Test Run when it is canceled.
+     */
+    private CompletableFuture<TestRunResult> runAsync(final ExecutorService executor,
+            final Map<String, AbstractResult.ResultCtx> resultCtxs,
+            final JSONObject startTestRequest, final TestResultVisitor visitor) {
+        final CompletableFuture<TestRunResult> result = new CompletableFuture<>();
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                cancelQuietly();
+            }
+        });
+        startAsync(startTestRequest).thenCompose(
+                eid -> prepareResultStructure(ctx, executor, resultCtxs, this, eid, visitor).resultAsync())
+                .whenComplete((r, e) -> {
+                    if (e != null) {
+                        result.completeExceptionally(e);
+                    } else {
+                        result.complete(r);
+                    }
+                });
+        return result;
+    }
+
+    private static TestRunCmd prepareResultStructure(final InstanceCtx ctx, final ExecutorService executor,
+            final Map<String, AbstractResult.ResultCtx> resultCtxs,
+            final TestRunCmd testRunCmd, final String eid, final TestResultVisitor visitor) {
         final TestRunResultCmd testRunResultCmd = new TestRunResultCmd(
-                ctx, eid, etsMap, testRunCmd.deleteRequest());
-        final TestRunMonitor statusQuery = new TestRunMonitor(ctx, testRunCmd, eid, testRunResultCmd);
+                ctx, eid, resultCtxs, testRunCmd.deleteRequest(), visitor);
+        final TestRunMonitor statusQuery = new TestRunMonitor(ctx, executor, testRunCmd, eid, testRunResultCmd);
         try {
-            final Future<TestRunResult> future = executor.submit(statusQuery, testRunCmd.resultProxy());
-            testRunCmd.injectAfterStart(future);
+            ctx.registerRun(testRunCmd);
+            if (testRunCmd.canceled()) {
+                // canceled concurrently, the monitor stops at its first run
+                ctx.deregisterRun(testRunCmd);
+            }
+            statusQuery.start();
             return testRunCmd;
         } catch (final RejectedExecutionException e) {
+            ctx.deregisterRun(testRunCmd);
             throw new EtfIllegalStateException(
                     "The connection to the endpoint with session ID '"
                             + ctx.sessionId + "' has already been closed.");
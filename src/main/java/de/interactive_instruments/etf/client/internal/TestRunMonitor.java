@@ -22,44 +22,68 @@ import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
 
-import de.interactive_instruments.etf.client.RemoteInvocationException;
+import de.interactive_instruments.etf.client.EtfIllegalStateException;
 
 /**
+ * Monitors the progress of one Test Run.
+ *
+ * The progress checks of all Test Runs of an endpoint are scheduled with the scheduler of the endpoint. A check does
+ * not block a thread while waiting: the progress is queried asynchronously and the next check is scheduled when the
+ * response has been processed. The delay between two checks is determined by the polling strategy of the endpoint.
+ * The result is created in the executor of the endpoint, after the Test Run has finished.
+ *
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
 class TestRunMonitor implements Runnable {
 
     private final static String suffix = "/progress";
     private final TestRunCmd callback;
-    private final static int noOfFirstChecks = 8;
-    private final static long firstChecksWaitTime = Duration.ofSeconds(9).toMillis();
-    private final static long waitTime = Duration.ofSeconds(13).toMillis();
-    private final static long maxIterations = Duration.ofHours(24).toMillis() / waitTime;
+    private final static long maxDuration = Duration.ofHours(24).toMillis();
+    private final InstanceCtx ctx;
+    private final ExecutorService executor;
     private final JsonGetRequest jsonGetRequest;
     private final CreateResultCmd createResultCmd;
-    private final String id;
+    private long started;
+    private long deadline;
+    private int checks;
+    private double progress;
 
-    TestRunMonitor(final InstanceCtx ctx, final TestRunCmd callback,
+    TestRunMonitor(final InstanceCtx ctx, final ExecutorService executor, final TestRunCmd callback,
             final String testRunEid, final CreateResultCmd createResultCmd) {
+        this.ctx = ctx;
+        this.executor = executor;
         this.callback = callback;
         this.createResultCmd = createResultCmd;
-        this.id = ctx.sessionId + "-" + testRunEid;
         jsonGetRequest = new JsonGetRequest(URI.create(
                 ctx.baseUrl.toString() + "/" + PATH + testRunEid + suffix), ctx);
     }
 
-    private boolean queryProgress() throws RemoteInvocationException {
-        final JSONObject response = jsonGetRequest.query();
+    void start() {
+        this.started = System.currentTimeMillis();
+        this.deadline = started + maxDuration;
+        ctx.scheduler().schedule(this, nextDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    private boolean updateProgress(final JSONObject response) {
         final int val = response.getInt("val");
         final int max = response.getInt("max");
-        final double progress = ((double) val) / max;
+        final double progress = max > 0 ? ((double) val) / max : 0;
+        if (progress != this.progress) {
+            // restart the back-off of the polling strategy
+            this.checks = 0;
+        }
+        this.progress = progress;
         final JSONArray logEntriesJson = response.getJSONArray("log");
-        final List<String> logEntries = new ArrayList<>();
+        final List<String> logEntries = new ArrayList<>(logEntriesJson.length());
         for (final Object logEntry : logEntriesJson) {
             logEntries.add((String) logEntry);
         }
@@ -67,37 +91,54 @@ class TestRunMonitor implements Runnable {
         return val == max;
     }
 
-    private void queryUntilFinished() throws TimeoutException, RemoteInvocationException {
-        for (int i = 0; i < noOfFirstChecks; i++) {
-            try {
-                Thread.sleep(firstChecksWaitTime);
-            } catch (InterruptedException ign) {
-                // ignore
-            }
-            if (queryProgress()) {
-                return;
-            }
+    private long nextDelay() {
+        final Duration elapsed = Duration.ofMillis(System.currentTimeMillis() - started);
+        final Duration delay = ctx.pollingStrategy.nextCheck(checks++, elapsed, progress);
+        return delay != null ? Math.max(0, delay.toMillis()) : 0;
+    }
+
+    private void failed(final Throwable e) {
+        final Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof Exception) {
+            this.callback.exception((Exception) cause);
+        } else {
+            this.callback.exception(new EtfIllegalStateException("Monitoring the Test Run failed", cause));
         }
-        for (int i = 0; i < maxIterations; i++) {
-            try {
-                Thread.sleep(waitTime);
-            } catch (InterruptedException ign) {
-                // ignore
-            }
-            if (queryProgress()) {
-                return;
-            }
+    }
+
+    private void createResult() {
+        try {
+            this.callback.finished(createResultCmd.create());
+        } catch (final Exception e) {
+            this.callback.exception(e);
         }
-        throw new TimeoutException("Validation process is taking too long");
     }
 
     @Override
     public void run() {
+        if (this.callback.canceled()) {
+            return;
+        }
         try {
-            Thread.currentThread().setName("etf-client-" + this.id);
-            queryUntilFinished();
-            this.callback.finished(createResultCmd.create());
-        } catch (final Exception e) {
+            // only the log entries after the last received entry are requested
+            jsonGetRequest.queryAsync("pos=" + this.callback.logEntryCount()).whenComplete((response, e) -> {
+                if (e != null) {
+                    failed(e);
+                    return;
+                }
+                try {
+                    if (updateProgress(response)) {
+                        executor.execute(this::createResult);
+                    } else if (System.currentTimeMillis() > deadline) {
+                        throw new TimeoutException("Validation process is taking too long");
+                    } else if (!this.callback.canceled()) {
+                        ctx.scheduler().schedule(this, nextDelay(), TimeUnit.MILLISECONDS);
+                    }
+                } catch (final Exception ex) {
+                    this.callback.exception(ex);
+                }
+            });
+        } catch (final EtfIllegalStateException | RejectedExecutionException e) {
             this.callback.exception(e);
         }
     }
@@ -24,8 +24,6 @@ import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
-import org.json.JSONObject;
-
 import de.interactive_instruments.etf.client.*;
 
 /**
@@ -36,49 +34,32 @@ class TestRunResultCmd implements CreateResultCmd {
     private final static String SUFFIX = ".json";
     private final static String LOG_SUFFIX = "/log";
 
+    private final InstanceCtx ctx;
     private final String testRunEid;
     private final Map<String, AbstractResult.ResultCtx> preparedResultCtx;
     private final JsonGetRequest jsonGetRequest;
     private final SimpleGetRequest logFileRequest;
     private final DeleteRequest deleteRequest;
+    private final TestResultVisitor visitor;
 
     private static class DefaultTestRunResult implements TestRunResult {
 
         private final SimpleGetRequest logFileRequest;
         private final DeleteRequest deleteRequest;
         private final LocalDateTime startDate;
+        private final long duration;
         private final List<TestTaskResult> testTaskResults;
+        private final MessageGroups messageGroups;
 
-        public DefaultTestRunResult(final JSONObject testRun, final Collection<JSONObject> testTasksResults,
-                final Map<String, AbstractResult.ResultCtx> preparedResultCtx,
+        public DefaultTestRunResult(final String startTimestamp, final long duration,
+                final List<TestTaskResult> testTaskResults, final MessageGroups messageGroups,
                 final SimpleGetRequest logFileRequest, final DeleteRequest deleteRequest) {
             this.logFileRequest = logFileRequest;
             this.deleteRequest = deleteRequest;
-            startDate = LocalDateTime.from(DateTimeFormatter.ISO_DATE_TIME.parse(testRun.getString("startTimestamp")));
-            testTaskResults = new ArrayList<>();
-            for (final JSONObject testTaskResult : testTasksResults) {
-                final AbstractResult.ResultCtx resultCtx = preparedResultCtx.get(
-                        testTaskResult.getJSONObject("resultedFrom").getString("ref"));
-                testTaskResults.add(new TestTaskResultImpl(Objects.requireNonNull(resultCtx,
-                        "Executable Test Suite not found").newChild(testTaskResult)));
-            }
-            if (testTasksResults.isEmpty()) {
-                final Collection<JSONObject> testTasks = new JSONObjectOrArray(
-                        (JSONObject) testRun.get("testTasks")).get("TestTask");
-                for (final JSONObject testTask : testTasks) {
-                    // the test result is undefined
-                    final String ref = testTask.getJSONObject("executableTestSuite").getString("ref");
-                    final AbstractResult.ResultCtx resultCtx = preparedResultCtx.get(ref);
-                    final JSONObject result = new JSONObject();
-                    result.put("testModuleResults", new JSONObject().put("TestModuleResult", "NONE"));
-                    result.put("resultedFrom", new JSONObject().put("ref", ref));
-                    result.put("status", "UNDEFINED");
-                    result.put("startTimestamp", testRun.getString("startTimestamp"));
-                    result.put("duration", 0);
-                    final AbstractResult.ResultCtx undefinedTestTaskResult = resultCtx.newChild(result);
-                    testTaskResults.add(new TestTaskResultImpl(undefinedTestTaskResult));
-                }
-            }
+            this.startDate = LocalDateTime.from(DateTimeFormatter.ISO_DATE_TIME.parse(startTimestamp));
+            this.duration = duration;
+            this.testTaskResults = testTaskResults;
+            this.messageGroups = messageGroups;
         }
 
         @Override
@@ -93,11 +74,7 @@ class TestRunResultCmd implements CreateResultCmd {
 
         @Override
         public long duration() {
-            long duration = 0;
-            for (final TestTaskResult testTaskResult : testTaskResults) {
-                duration += testTaskResult.duration();
-            }
-            return duration;
+            return this.duration;
         }
 
         @Override
@@ -105,19 +82,36 @@ class TestRunResultCmd implements CreateResultCmd {
             return this.testTaskResults;
         }
 
+        @Override
+        public Collection<MessageGroup> messageGroups() {
+            return this.messageGroups.groups();
+        }
+
         @Override
         public void delete() throws RemoteInvocationException {
             this.deleteRequest.delete();
         }
 
         @Override
-        public Iterator iterator() {
-            return new AbstractResult.TestResultIterator(this.testTaskResults.iterator());
+        public Iterator<TestResult> iterator() {
+            return AbstractResult.TestResultIterator.of(this.testTaskResults);
+        }
+
+        @Override
+        public Spliterator<TestResult> spliterator() {
+            return TestResultSpliterator.of(this.testTaskResults);
         }
     }
 
+    /**
+     * @param visitor
+     *            if set, the results are passed to the visitor and the created Test Run Result does not contain any
+     *            Test Task Results
+     */
     public TestRunResultCmd(final InstanceCtx ctx, final String testRunEid,
-            final Map<String, AbstractResult.ResultCtx> preparedResultCtx, final DeleteRequest deleteRequest) {
+            final Map<String, AbstractResult.ResultCtx> preparedResultCtx, final DeleteRequest deleteRequest,
+            final TestResultVisitor visitor) {
+        this.ctx = ctx;
         this.testRunEid = testRunEid;
         this.preparedResultCtx = preparedResultCtx;
         jsonGetRequest = new JsonGetRequest(
@@ -125,27 +119,30 @@ class TestRunResultCmd implements CreateResultCmd {
         logFileRequest = new SimpleGetRequest(
                 URI.create(ctx.baseUrl.toString() + "/" + PATH + testRunEid + LOG_SUFFIX), ctx);
         this.deleteRequest = deleteRequest;
-
+        this.visitor = visitor;
     }
 
     @Override
     public TestRunResult create() {
-        final JSONObject result;
+        final TestRunResultParser parser;
         try {
-            result = jsonGetRequest.query();
+            parser = jsonGetRequest.query(
+                    reader -> new TestRunResultParser(ctx, preparedResultCtx, reader, visitor).parse());
         } catch (RemoteInvocationException e) {
             throw new EtfIllegalStateException("Failed to parse result", e);
         }
-        final JSONObject testRun = result.getJSONObject("EtfItemCollection").getJSONObject(
-                "testRuns").getJSONObject("TestRun");
-        final JSONObject referencedItems = result.getJSONObject("EtfItemCollection").getJSONObject("referencedItems");
-        final Collection<JSONObject> testTasksResults;
-        if (!referencedItems.isNull("testTaskResults")) {
-            testTasksResults = new JSONObjectOrArray(referencedItems.getJSONObject("testTaskResults")).get("TestTaskResult");
+        final List<TestTaskResult> testTaskResults;
+        if (visitor != null) {
+            testTaskResults = Collections.emptyList();
         } else {
-            testTasksResults = Collections.emptyList();
+            final ResultStore store = parser.store();
+            store.trim();
+            if (!ctx.lazyResults) {
+                store.resolve(ctx.resultPool);
+            }
+            testTaskResults = store.testTaskResults();
         }
-        return new DefaultTestRunResult(testRun, testTasksResults, this.preparedResultCtx,
-                this.logFileRequest, this.deleteRequest);
+        return new DefaultTestRunResult(parser.startTimestamp(), parser.duration(), testTaskResults,
+                parser.messageGroups(), this.logFileRequest, this.deleteRequest);
     }
 }
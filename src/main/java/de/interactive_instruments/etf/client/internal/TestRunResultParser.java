@@ -0,0 +1,680 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.*;
+
+import de.interactive_instruments.etf.client.*;
+
+/**
+ * Reads a Test Run result document with a pull parser and adds the results to a {@link ResultStore} while reading,
+ * without building a DOM of the document.
+ *
+ * The results are added bottom-up, as soon as all properties of a JSON object have been read. Attachments of
+ * Test Step Results reference attachments of the Test Task Result, so they are resolved after the Test Task Result
+ * has been read completely.
+ *
+ * If a visitor is set, each result is passed to the visitor instead. Consecutive visited results share a small store
+ * without children, which is replaced when it is full. Stores that have been replaced are not referenced by the
+ * parser anymore, so results kept by the visitor stay valid. Attachments of Test Step Results can only be resolved if
+ * the attachments of the Test Task Result precede the Test Module Results in the document.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class TestRunResultParser {
+
+    private final Map<String, AbstractResult.ResultCtx> preparedResultCtx;
+    private final JsonStreamReader reader;
+    private String startTimestamp;
+    private final List<String> testTaskEtsRefs = new ArrayList<>();
+    private final ResultStore store;
+    private final TestResultVisitor visitor;
+    // store for the results passed to the visitor
+    private ResultStore visitedStore;
+    private final static int VISITED_STORE_CAPACITY = 256;
+    private int testTaskResultCount;
+    private long duration;
+    // messages of the Test Task Result that is read and of all Test Task Results
+    private MessageGroups taskMessageGroups = new MessageGroups();
+    private final MessageGroups messageGroups = new MessageGroups();
+
+    // result types as returned by TestResult.type(), indexed by the ResultStore type constants
+    private final static String[] typeNames = {
+            "TestTaskResult", "TestModuleResult", "TestCaseResult", "TestStepResult", "TestAssertionResult"
+    };
+
+    @FunctionalInterface
+    private interface ObjectReader {
+        void read() throws IOException;
+    }
+
+    // The Test Task Result that is currently read
+    private final class TaskScope {
+        private AbstractResult.ResultCtx resultCtx;
+        private final Map<String, ResultAttachment> attachments = new HashMap<>();
+        private final ResultStore.IntList stepsWithAttachments = new ResultStore.IntList();
+        private final List<List<String>> stepAttachmentRefs = new ArrayList<>();
+
+        AbstractResult.ResultCtx resultCtx(final String eidRef) {
+            if (resultCtx != null) {
+                return resultCtx;
+            }
+            // resultedFrom of the Test Task Result has not been read yet. The ETS of the Test Tasks are checked
+            // first, so that the EID indices of other ETS are not created.
+            for (final String etsRef : testTaskEtsRefs) {
+                final AbstractResult.ResultCtx candidate = preparedResultCtx.get(etsRef);
+                if (candidate != null && candidate.etsMappings().contains(eidRef)) {
+                    return candidate;
+                }
+            }
+            for (final AbstractResult.ResultCtx candidate : preparedResultCtx.values()) {
+                if (candidate.etsMappings().contains(eidRef)) {
+                    return candidate;
+                }
+            }
+            throw new NullPointerException("Object with EID " + eidRef + " not found");
+        }
+
+        /**
+         * Returns the attachments with the passed IDs
+         *
+         * @param required
+         *            true if all attachments must have been read, otherwise missing attachments are ignored
+         */
+        List<ResultAttachment> attachments(final List<String> refs, final boolean required) {
+            final List<ResultAttachment> resolved = new ArrayList<>(refs.size());
+            for (final String ref : refs) {
+                final ResultAttachment attachment = attachments.get(ref);
+                if (attachment != null) {
+                    resolved.add(attachment);
+                } else if (required) {
+                    throw new NullPointerException("Object with EID " + ref + " not found");
+                }
+            }
+            return resolved;
+        }
+    }
+
+    // Properties that all results have in common
+    private final class Fields {
+        private String id;
+        private String ref;
+        private String status;
+        private String startTimestamp;
+        private long duration;
+
+        boolean read(final String name) throws IOException {
+            switch (name) {
+            case "id":
+                id = nextStringOrNull();
+                return true;
+            case "resultedFrom":
+                ref = readRef();
+                return true;
+            case "status":
+                status = nextStringOrNull();
+                return true;
+            case "startTimestamp":
+                startTimestamp = nextStringOrNull();
+                return true;
+            case "duration":
+                duration = reader.nextLong();
+                return true;
+            default:
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @param visitor
+     *            the visitor that is called for each result, or null to add the results to a store
+     */
+    TestRunResultParser(final InstanceCtx ctx, final Map<String, AbstractResult.ResultCtx> preparedResultCtx,
+            final Reader reader, final TestResultVisitor visitor) {
+        this.preparedResultCtx = preparedResultCtx;
+        this.reader = new JsonStreamReader(reader);
+        this.visitor = visitor;
+        this.store = visitor == null ? new ResultStore() : null;
+    }
+
+    TestRunResultParser parse() throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("EtfItemCollection".equals(reader.nextName())) {
+                readItemCollection();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (testTaskResultCount == 0) {
+            // the test result is undefined
+            for (final String ref : testTaskEtsRefs) {
+                final Fields fields = new Fields();
+                fields.ref = ref;
+                fields.status = "UNDEFINED";
+                fields.startTimestamp = startTimestamp;
+                enter(ResultStore.TEST_TASK_RESULT);
+                add(ResultStore.TEST_TASK_RESULT, preparedResultCtx.get(ref), fields, null, null, null, null);
+            }
+        }
+        return this;
+    }
+
+    String startTimestamp() {
+        return startTimestamp;
+    }
+
+    /**
+     * The store with the results that have been read, or null if a visitor is used
+     */
+    ResultStore store() {
+        return store;
+    }
+
+    /**
+     * The messages of all Test Task Results grouped by translation template
+     */
+    MessageGroups messageGroups() {
+        return messageGroups;
+    }
+
+    /**
+     * The sum of the durations of all Test Task Results
+     */
+    long duration() {
+        return duration;
+    }
+
+    private void enter(final byte type) {
+        if (visitor != null) {
+            visitor.enter(typeNames[type]);
+        }
+    }
+
+    private void skip(final byte type) {
+        if (visitor != null) {
+            visitor.skip(typeNames[type]);
+        }
+    }
+
+    /**
+     * Adds a result to the store or passes it to the visitor
+     *
+     * @return the index of the result in the store or -1 if the result has been passed to the visitor
+     */
+    private int add(final byte type, final AbstractResult.ResultCtx resultCtx, final Fields fields,
+            final ResultStore.IntList children, final List<ResultMessage> messages,
+            final List<ResultAttachment> attachments, final String errorMessage) {
+        // in visitor mode, messages are only translated if the visitor accesses them
+        final ResultStore target = visitor != null ? visitedStore() : store;
+        final int index = target.add(type, resultCtx, fields.ref, fields.status, fields.startTimestamp,
+                fields.duration, children);
+        if (messages != null) {
+            target.messages(index, fields.id, messages);
+            if (type == ResultStore.TEST_ASSERTION_RESULT) {
+                taskMessageGroups.add(messages, target.label(index));
+            }
+        }
+        if (attachments != null && !attachments.isEmpty()) {
+            target.attachments(index, attachments);
+        }
+        if (errorMessage != null) {
+            target.errorMessage(index, errorMessage);
+        }
+        if (type == ResultStore.TEST_TASK_RESULT) {
+            target.messageGroups(index, taskMessageGroups);
+            messageGroups.addAll(taskMessageGroups);
+            taskMessageGroups = new MessageGroups();
+            testTaskResultCount++;
+            duration += fields.duration;
+        }
+        if (visitor != null) {
+            visitor.exit(target.result(index));
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * The store is not trimmed and never grows, so that results that have been passed to the visitor are not affected
+     * by the results added afterwards.
+     */
+    private ResultStore visitedStore() {
+        if (visitedStore == null || visitedStore.size() == VISITED_STORE_CAPACITY) {
+            visitedStore = new ResultStore(VISITED_STORE_CAPACITY);
+        }
+        return visitedStore;
+    }
+
+    private void readItemCollection() throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if ("testRuns".equals(name)) {
+                forEachChild("TestRun", this::readTestRun);
+            } else if ("referencedItems".equals(name)) {
+                forEachChild("testTaskResults", () -> forEachChild("TestTaskResult", this::readTestTaskResult));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readTestRun() throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if ("startTimestamp".equals(name)) {
+                startTimestamp = nextStringOrNull();
+            } else if ("testTasks".equals(name)) {
+                forEachChild("TestTask", () -> forEachChild("executableTestSuite", () -> {
+                    final String ref = readRef();
+                    if (ref != null) {
+                        testTaskEtsRefs.add(ref);
+                    }
+                }));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readTestTaskResult() throws IOException {
+        final TaskScope task = new TaskScope();
+        final Fields fields = new Fields();
+        String errorMessage = null;
+        ResultStore.IntList testModuleResults = null;
+        enter(ResultStore.TEST_TASK_RESULT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (fields.read(name)) {
+                if ("resultedFrom".equals(name) && fields.ref != null) {
+                    task.resultCtx = preparedResultCtx.get(fields.ref);
+                }
+                continue;
+            }
+            switch (name) {
+            case "errorMessage":
+                errorMessage = nextStringOrNull();
+                break;
+            case "attachments":
+                forEachChild("Attachment", () -> readAttachment(task));
+                break;
+            case "testModuleResults":
+                testModuleResults = readChildren("TestModuleResult", list -> readTestModuleResult(task, list));
+                break;
+            default:
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        final AbstractResult.ResultCtx resultCtx = Objects.requireNonNull(task.resultCtx,
+                "Executable Test Suite not found");
+        resolveAttachments(task);
+        add(ResultStore.TEST_TASK_RESULT, resultCtx, fields, testModuleResults, null, null, errorMessage);
+    }
+
+    private void readTestModuleResult(final TaskScope task, final ResultStore.IntList out) throws IOException {
+        final Fields fields = new Fields();
+        ResultStore.IntList testCaseResults = null;
+        enter(ResultStore.TEST_MODULE_RESULT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (fields.read(name)) {
+                continue;
+            }
+            if ("testCaseResults".equals(name)) {
+                testCaseResults = readChildren("TestCaseResult", list -> readTestCaseResult(task, list));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (fields.ref != null) {
+            addTo(out, add(ResultStore.TEST_MODULE_RESULT, task.resultCtx(fields.ref), fields, testCaseResults,
+                    null, null, null));
+        } else {
+            skip(ResultStore.TEST_MODULE_RESULT);
+        }
+    }
+
+    private void readTestCaseResult(final TaskScope task, final ResultStore.IntList out) throws IOException {
+        final Fields fields = new Fields();
+        ResultStore.IntList testStepResults = null;
+        enter(ResultStore.TEST_CASE_RESULT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (fields.read(name)) {
+                continue;
+            }
+            if ("testStepResults".equals(name)) {
+                testStepResults = readChildren("TestStepResult", list -> readTestStepResult(task, list));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (fields.ref != null) {
+            addTo(out, add(ResultStore.TEST_CASE_RESULT, task.resultCtx(fields.ref), fields, testStepResults,
+                    null, null, null));
+        } else {
+            skip(ResultStore.TEST_CASE_RESULT);
+        }
+    }
+
+    /**
+     * Reads a Test Step Result and adds it to the list, followed by the Test Step Results it invoked
+     */
+    private void readTestStepResult(final TaskScope task, final ResultStore.IntList out) throws IOException {
+        final Fields fields = new Fields();
+        List<ResultMessage> messages = Collections.emptyList();
+        ResultStore.IntList testAssertionResults = null;
+        List<String> attachmentRefs = null;
+        ResultStore.IntList invokedTests = null;
+        enter(ResultStore.TEST_STEP_RESULT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (fields.read(name)) {
+                continue;
+            }
+            switch (name) {
+            case "messages":
+                messages = readMessages();
+                break;
+            case "attachments":
+                final List<String> refs = new ArrayList<>();
+                forEachChild("attachment", () -> {
+                    final String ref = readRef();
+                    if (ref != null) {
+                        refs.add(ref);
+                    }
+                });
+                attachmentRefs = refs;
+                break;
+            case "testAssertionResults":
+                testAssertionResults = readChildren("TestAssertionResult", list -> readTestAssertionResult(task, list));
+                break;
+            case "invokedTests":
+                invokedTests = readInvokedTests(task);
+                break;
+            default:
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (fields.ref != null) {
+            final AbstractResult.ResultCtx resultCtx = task.resultCtx(fields.ref);
+            final boolean hasAttachments = attachmentRefs != null && !attachmentRefs.isEmpty();
+            final int testStepResult = add(ResultStore.TEST_STEP_RESULT, resultCtx, fields, testAssertionResults,
+                    messages, visitor != null && hasAttachments ? task.attachments(attachmentRefs, false) : null,
+                    null);
+            if (testStepResult != -1) {
+                out.add(testStepResult);
+                if (hasAttachments) {
+                    task.stepsWithAttachments.add(testStepResult);
+                    task.stepAttachmentRefs.add(attachmentRefs);
+                }
+                if (invokedTests != null) {
+                    out.addAll(invokedTests);
+                }
+            }
+        } else {
+            skip(ResultStore.TEST_STEP_RESULT);
+        }
+    }
+
+    private ResultStore.IntList readInvokedTests(final TaskScope task) throws IOException {
+        final ResultStore.IntList invokedTests = new ResultStore.IntList();
+        forEachChild(new String[]{"TestStepResult", "TestCaseResult"}, name -> {
+            if ("TestStepResult".equals(name)) {
+                readTestStepResult(task, invokedTests);
+            } else {
+                // only the Test Step Results of invoked Test Cases are used
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if ("testStepResults".equals(reader.nextName())) {
+                        forEachChild("TestStepResult", () -> readTestStepResult(task, invokedTests));
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+                reader.endObject();
+            }
+        });
+        return invokedTests;
+    }
+
+    private void readTestAssertionResult(final TaskScope task, final ResultStore.IntList out) throws IOException {
+        final Fields fields = new Fields();
+        List<ResultMessage> messages = Collections.emptyList();
+        enter(ResultStore.TEST_ASSERTION_RESULT);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (fields.read(name)) {
+                continue;
+            }
+            if ("messages".equals(name)) {
+                messages = readMessages();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (fields.ref != null) {
+            addTo(out, add(ResultStore.TEST_ASSERTION_RESULT, task.resultCtx(fields.ref), fields, null, messages,
+                    null, null));
+        } else {
+            skip(ResultStore.TEST_ASSERTION_RESULT);
+        }
+    }
+
+    private List<ResultMessage> readMessages() throws IOException {
+        final List<ResultMessage> messages = new ArrayList<>(2);
+        forEachChild("message", () -> {
+            final ResultMessage.Builder builder = new ResultMessage.Builder();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("ref".equals(name)) {
+                    builder.ref(nextStringOrNull());
+                } else if ("translationArguments".equals(name)) {
+                    forEachChild("argument", () -> readArgument(builder));
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            messages.add(builder.build());
+        });
+        return messages;
+    }
+
+    private void readArgument(final ResultMessage.Builder builder) throws IOException {
+        String token = null;
+        Object value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if ("token".equals(name)) {
+                token = nextStringOrNull();
+            } else if ("$".equals(name)) {
+                value = reader.nextValue();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        builder.argument(token, value);
+    }
+
+    private void readAttachment(final TaskScope task) throws IOException {
+        final ResultAttachment attachment = new ResultAttachment();
+        String id = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+            case "id":
+                id = nextStringOrNull();
+                break;
+            case "label":
+                attachment.label = nextStringOrNull();
+                break;
+            case "mimeType":
+                attachment.mimeType = nextStringOrNull();
+                break;
+            case "embeddedData":
+                attachment.embeddedData = nextStringOrNull();
+                break;
+            case "referencedData":
+                attachment.href = readProperty("href");
+                break;
+            default:
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        if (id != null) {
+            task.attachments.put(id, attachment);
+        }
+    }
+
+    private void resolveAttachments(final TaskScope task) {
+        for (int i = 0; i < task.stepsWithAttachments.size(); i++) {
+            store.attachments(task.stepsWithAttachments.get(i), task.attachments(task.stepAttachmentRefs.get(i), true));
+        }
+    }
+
+    private static void addTo(final ResultStore.IntList out, final int index) {
+        if (index != -1) {
+            out.add(index);
+        }
+    }
+
+    private String nextStringOrNull() throws IOException {
+        if (reader.peek() == JsonStreamReader.Token.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    private String readRef() throws IOException {
+        return readProperty("ref");
+    }
+
+    /**
+     * Reads an object like <code>{"ref": "EID..."}</code> and returns the value of the property with the passed name
+     */
+    private String readProperty(final String propertyName) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String value = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (propertyName.equals(reader.nextName())) {
+                value = nextStringOrNull();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface ChildReader {
+        void read(final ResultStore.IntList out) throws IOException;
+    }
+
+    /**
+     * Reads a container like <code>{"TestCaseResult": [...]}</code> and returns the indices of the added children
+     */
+    private ResultStore.IntList readChildren(final String childName, final ChildReader childReader)
+            throws IOException {
+        final ResultStore.IntList children = new ResultStore.IntList();
+        forEachChild(childName, () -> childReader.read(children));
+        return children;
+    }
+
+    /**
+     * Calls the object reader for the object value of the property with the passed name in the current object, or for
+     * each object if the value is an array. Other properties and values are skipped.
+     */
+    private void forEachChild(final String childName, final ObjectReader objectReader) throws IOException {
+        forEachChild(new String[]{childName}, name -> objectReader.read());
+    }
+
+    @FunctionalInterface
+    private interface NamedObjectReader {
+        void read(final String name) throws IOException;
+    }
+
+    private void forEachChild(final String[] childNames, final NamedObjectReader objectReader) throws IOException {
+        if (reader.peek() != JsonStreamReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String name = reader.nextName();
+            if (contains(childNames, name)) {
+                if (reader.peek() == JsonStreamReader.Token.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        readValue(name, objectReader);
+                    }
+                    reader.endArray();
+                } else {
+                    readValue(name, objectReader);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private void readValue(final String name, final NamedObjectReader objectReader) throws IOException {
+        if (reader.peek() == JsonStreamReader.Token.BEGIN_OBJECT) {
+            objectReader.read(name);
+        } else {
+            reader.skipValue();
+        }
+    }
+
+    private static boolean contains(final String[] names, final String name) {
+        for (final String n : names) {
+            if (n.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
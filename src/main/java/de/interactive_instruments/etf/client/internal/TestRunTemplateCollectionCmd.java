@@ -18,6 +18,7 @@ package de.interactive_instruments.etf.client.internal;
 
 import java.net.URI;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 
 import org.json.JSONArray;
@@ -52,6 +53,7 @@ class TestRunTemplateCollectionCmd {
             this.translationTemplateBundleCollection = translationTemplateBundleCollection;
             this.trtExecutionContext = new TrtExecutionContext(ctx, executor, etsCollection);
             initChildren(jsonArray);
+            indexLabels();
         }
 
         @Override
@@ -84,6 +86,24 @@ class TestRunTemplateCollectionCmd {
             return trtExecutionContext.start(trt, testObject, testRunObserver, parameters);
         }
 
+        @Override
+        public CompletionStage<TestRunResult> executeAsync(final TestObject testObject, final RunParameters parameters,
+                final TestResultVisitor visitor)
+                throws IncompatibleTestObjectTypesException, EtfIllegalStateException {
+            if (this.items.isEmpty()) {
+                throw new EtfIllegalStateException("The Executable Test Suite Collection is empty");
+            }
+            if (this.items.values().size() > 1) {
+                throw new EtfIllegalStateException("Starting multiple Test Run Templates is not supported, "
+                        + "only one template may be selected.");
+            }
+            final TestRunTemplate trt = this.items.values().iterator().next();
+            if (!testObject.baseType().equals(trt.supportedBaseType())) {
+                throw new IncompatibleTestObjectTypesException();
+            }
+            return trtExecutionContext.startAsync(trt, testObject, parameters, visitor);
+        }
+
         @Override
         public RunParameters parameters() {
             return this.etsCollection.parameters();
@@ -99,27 +119,30 @@ class TestRunTemplateCollectionCmd {
     }
 
     private final JsonGetRequest apiCall;
-    private DefaultTestRunTemplateCollection cachedCollection;
+    private final CollectionCache<DefaultTestRunTemplateCollection> cache;
 
     TestRunTemplateCollectionCmd(final InstanceCtx ctx) {
-        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx);
+        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx, true);
         this.ctx = ctx;
+        this.cache = new CollectionCache<>(ctx);
     }
 
-    synchronized EtfCollection<TestRunTemplate> query(final CompletableFuture ttCollectionFuture,
+    EtfCollection<TestRunTemplate> query(final CompletableFuture ttCollectionFuture,
             final CompletableFuture etsCollectionFuture) throws RemoteInvocationException {
-        final EtfCollection<TranslationTemplateBundle> ttCResult = (EtfCollection<TranslationTemplateBundle>) AbstractCollectionCmd
-                .toCollection(ttCollectionFuture);
-        final EtsCollection etsResult = (EtsCollection) AbstractCollectionCmd.toCollection(etsCollectionFuture);
-
-        if (apiCall.upToDate()) {
-            return cachedCollection.inject(etsResult, ttCResult);
-        } else {
-            final JSONArray result = apiCall.query().getJSONObject("EtfItemCollection").getJSONObject("testRunTemplates")
+        return cache.get(cachedCollection -> {
+            final EtfCollection<TranslationTemplateBundle> ttCResult = (EtfCollection<TranslationTemplateBundle>) AbstractCollectionCmd
+                    .toCollection(ttCollectionFuture);
+            final EtsCollection etsResult = (EtsCollection) AbstractCollectionCmd.toCollection(etsCollectionFuture);
+
+            final JSONObject response = apiCall.queryIfModified(cachedCollection != null);
+            if (response == null) {
+                cachedCollection.inject(etsResult, ttCResult);
+                return cachedCollection;
+            }
+            final JSONArray result = response.getJSONObject("EtfItemCollection").getJSONObject("testRunTemplates")
                     .getJSONArray("TestRunTemplate");
-            cachedCollection = new TestRunTemplateCollectionCmd.DefaultTestRunTemplateCollection(ctx, result,
+            return new TestRunTemplateCollectionCmd.DefaultTestRunTemplateCollection(ctx, result,
                     ctx.executor(), etsResult, ttCResult);
-        }
-        return cachedCollection;
+        });
     }
 }
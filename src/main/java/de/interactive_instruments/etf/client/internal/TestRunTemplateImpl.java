@@ -17,6 +17,7 @@
 package de.interactive_instruments.etf.client.internal;
 
 import java.util.*;
+import java.util.concurrent.CompletionStage;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
@@ -88,6 +89,16 @@ public class TestRunTemplateImpl extends AbstractMetadata implements TestRunTemp
         return this.trtExecutionContext.start(this, testObject, testRunObserver, parameters);
     }
 
+    @Override
+    public CompletionStage<TestRunResult> executeAsync(final TestObject testObject, final RunParameters parameters,
+            final TestResultVisitor visitor)
+            throws IncompatibleTestObjectTypesException, EtfIllegalStateException {
+        if (!testObject.baseType().equals(this.baseType)) {
+            throw new IncompatibleTestObjectTypesException();
+        }
+        return this.trtExecutionContext.startAsync(this, testObject, parameters, visitor);
+    }
+
     @Override
     public RunParameters parameters() {
         return runParameters;
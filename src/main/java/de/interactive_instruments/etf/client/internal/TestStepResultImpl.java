@@ -19,59 +19,30 @@ package de.interactive_instruments.etf.client.internal;
 import java.util.Collection;
 import java.util.Map;
 
-import org.json.JSONObject;
-
 import de.interactive_instruments.etf.client.TestAssertionResult;
-import de.interactive_instruments.etf.client.TestResult;
 import de.interactive_instruments.etf.client.TestStepResult;
 
 /**
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
-class TestStepResultImpl extends AbstractTestResultMessageHolder implements TestStepResult {
-
-    private final Collection<TestAssertionResult> testAssertionResult;
-    private final Map<String, String> attachments;
-
-    TestStepResultImpl(final ResultCtx resultCtx) {
-        super(resultCtx);
-        testAssertionResult = (Collection<TestAssertionResult>) createChildren(
-                resultCtx.jsonObj, "testAssertionResults", "TestAssertionResult");
-        attachments = createAttachments(resultCtx.jsonObj);
-    }
+final class TestStepResultImpl extends AbstractTestResultMessageHolder implements TestStepResult {
 
-    @Override
-    TestResult doCreateChild(final JSONObject childJson) {
-        return new TestAssertionResultImpl(resultCtx.newChild(childJson));
+    TestStepResultImpl(final ResultStore store, final int index) {
+        super(store, index);
     }
 
     @Override
     public Map<String, String> getAttachment() {
-        return this.attachments;
+        return store.attachments(index);
     }
 
     @Override
     public Collection<TestAssertionResult> testAssertionResults() {
-        return this.testAssertionResult;
+        return store.children(index, TestAssertionResult.class);
     }
 
     @Override
     public String type() {
         return "TestStepResult";
     }
-
-    @Override
-    public Iterable<? extends TestResult> children() {
-        return testAssertionResult;
-    }
-
-    @Override
-    public String label() {
-        final String relabel = attachments.get("relabel");
-        if (relabel != null) {
-            return relabel;
-        } else {
-            return super.label();
-        }
-    }
 }
@@ -18,39 +18,27 @@ package de.interactive_instruments.etf.client.internal;
 
 import java.util.*;
 
-import org.json.JSONObject;
-
 import de.interactive_instruments.etf.client.*;
 
 /**
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
-class TestTaskResultImpl extends AbstractResult implements TestTaskResult {
-
-    private final Collection<TestModuleResult> testModuleResults;
-    private final String etsId;
+final class TestTaskResultImpl extends AbstractResult implements TestTaskResult {
 
-    TestTaskResultImpl(final ResultCtx resultCtx) {
-        super(resultCtx.withAttachments());
-        testModuleResults = (Collection<TestModuleResult>) createChildren(
-                resultCtx.jsonObj, "testModuleResults", "TestModuleResult");
-        this.etsId = this.resultCtx.jsonObj.getJSONObject("resultedFrom").getString("ref");
-    }
-
-    @Override
-    TestResult doCreateChild(final JSONObject childJson) {
-        return new TestModuleResultImpl(resultCtx.newChild(childJson));
+    TestTaskResultImpl(final ResultStore store, final int index) {
+        super(store, index);
     }
 
     @Override
     public Collection<TestModuleResult> testModuleResults() {
-        return this.testModuleResults;
+        return store.children(index, TestModuleResult.class);
     }
 
     @Override
     public Optional<Collection<String>> internalErrors() {
-        if (resultCtx.jsonObj.has("errorMessage")) {
-            return Optional.of(Collections.singletonList(resultCtx.jsonObj.getString("errorMessage")));
+        final String errorMessage = store.errorMessage(index);
+        if (errorMessage != null) {
+            return Optional.of(Collections.singletonList(errorMessage));
         }
         if (resultStatus().equals(ResultStatus.INTERNAL_ERROR)) {
             final Set<String> errors = new LinkedHashSet<>();
@@ -74,11 +62,11 @@ class TestTaskResultImpl extends AbstractResult implements TestTaskResult {
 
     @Override
     public String executableTestSuiteEid() {
-        return this.etsId;
+        return store.executableTestSuiteEid(index);
     }
 
     @Override
-    public Iterable<? extends TestResult> children() {
-        return testModuleResults;
+    public Collection<MessageGroup> messageGroups() {
+        return store.messageGroups(index);
     }
 }
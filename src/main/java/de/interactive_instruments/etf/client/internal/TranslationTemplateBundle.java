@@ -17,6 +17,8 @@
 package de.interactive_instruments.etf.client.internal;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -32,7 +34,7 @@ import de.interactive_instruments.etf.client.ReferenceError;
 class TranslationTemplateBundle implements ItemMetadata {
 
     // Translation interface
-    private interface Translation {
+    interface Translation {
 
         Pattern replacementPattern = Pattern.compile("(\\{[^}]*})");
 
@@ -62,7 +64,7 @@ class TranslationTemplateBundle implements ItemMetadata {
             }
         }
 
-        String translate(final Map<String, String> translationParameters);
+        String translate(final Function<String, String> translationParameters);
     }
 
     // Translation with parameters
@@ -86,7 +88,7 @@ class TranslationTemplateBundle implements ItemMetadata {
         }
 
         @Override
-        public String translate(final Map<String, String> translationParameters) {
+        public String translate(final Function<String, String> translationParameters) {
             final StringBuilder sb = new StringBuilder(initialLength);
             final int length = textAndParameters.length;
             for (int i = 0; i < length; i++) {
@@ -95,7 +97,7 @@ class TranslationTemplateBundle implements ItemMetadata {
                 // add translation replacement if available
                 if (++i < length) {
                     final String translationName = textAndParameters[i];
-                    final String translation = translationParameters.get(translationName);
+                    final String translation = translationParameters.apply(translationName);
                     sb.append(translation != null ? translation : "");
                 }
             }
@@ -112,20 +114,36 @@ class TranslationTemplateBundle implements ItemMetadata {
         }
 
         @Override
-        public String translate(final Map<String, String> translationParameters) {
+        public String translate(final Function<String, String> translationParameters) {
             return this.text;
         }
     }
 
     private final String eid;
+    private final String version;
     private final String parentRef;
-    private final EtfCollection<TranslationTemplateBundle> callback;
+    private volatile EtfCollection<TranslationTemplateBundle> callback;
 
     // names to language to translations mappings
     private final Map<String, Map<String, Translation>> translations = new LinkedHashMap<>();
+    // language to names to translations mappings, including the translations of the parent bundles
+    private final Map<String, CompiledTranslations> compiled = new ConcurrentHashMap<>();
+
+    // Translations for one language
+    private final static class CompiledTranslations {
+        private final Map<String, Translation> translations;
+        // set if a parent bundle is missing, reported if a name can not be translated
+        private final String missingParentRef;
+
+        private CompiledTranslations(final Map<String, Translation> translations, final String missingParentRef) {
+            this.translations = translations;
+            this.missingParentRef = missingParentRef;
+        }
+    }
 
     TranslationTemplateBundle(final JSONObject jsonObject, final EtfCollection<TranslationTemplateBundle> callback) {
         this.eid = jsonObject.getString("id");
+        this.version = jsonObject.has("version") ? jsonObject.getString("version") : null;
         this.parentRef = jsonObject.has("parent") ? jsonObject.getJSONObject("parent").getString("ref") : null;
         final Collection<JSONObject> langTranslationTemplateCollection = new JSONObjectOrArray(
                 jsonObject.getJSONObject("translationTemplateCollections")).get("LangTranslationTemplateCollection");
@@ -154,8 +172,18 @@ class TranslationTemplateBundle implements ItemMetadata {
         return this.eid;
     }
 
-    private String parentRef() {
-        return parentRef;
+    @Override
+    public Optional<String> version() {
+        return Optional.ofNullable(version);
+    }
+
+    /**
+     * Resolve parent bundles in the passed collection, that replaces the collection this bundle was created for
+     */
+    void relink(final EtfCollection<TranslationTemplateBundle> callback) {
+        this.callback = callback;
+        // the parent bundles may have changed
+        this.compiled.clear();
     }
 
     private void add(final JSONObject translationTemplate) {
@@ -169,34 +197,61 @@ class TranslationTemplateBundle implements ItemMetadata {
         }
     }
 
-    String translate(final String language, final String name, final Map<String, String> parameters) {
-        final Map<String, Translation> languageToTranslationsMap = this.translations.get(name);
-        if (languageToTranslationsMap == null) {
-            TranslationTemplateBundle nextTranslationTemplate = this;
-            while (nextTranslationTemplate.parentRef() != null) {
-                final String parentRef = nextTranslationTemplate.parentRef();
-
-                final Optional<TranslationTemplateBundle> n = callback.itemById(parentRef);
-                if (n.isEmpty()) {
-                    throw new ReferenceError("Referenced parent Translation Template Bundle '" +
-                            parentRef +
-                            "' not found. Please contact the administrator of the service to ensure "
-                            + "that the Translation Template Bundle is installed correctly. "
-                            + "If the problem persists, the Executable Test Suite developer should be "
-                            + "notified of the missing translation.");
-                }
-                nextTranslationTemplate = n.get();
-                final String translatedTextFromParent = nextTranslationTemplate.translate(language, name, parameters);
-                if (translatedTextFromParent != null) {
-                    return translatedTextFromParent;
-                }
+    String translate(final String language, final String name, final Function<String, String> parameters) {
+        final Translation translation = template(language, name);
+        return translation != null ? translation.translate(parameters) : null;
+    }
+
+    /**
+     * Returns the compiled translation template for a name, or null if the name is not defined in this bundle or in
+     * its parent bundles. The same object is returned as long as the template is unchanged.
+     *
+     * @throws ReferenceError
+     *             if the name is not found and a parent bundle is missing
+     */
+    Translation template(final String language, final String name) {
+        final CompiledTranslations c = compiled.computeIfAbsent(language, this::compile);
+        final Translation translation = c.translations.get(name);
+        if (translation == null) {
+            if (c.missingParentRef != null) {
+                throw new ReferenceError("Referenced parent Translation Template Bundle '" +
+                        c.missingParentRef +
+                        "' not found. Please contact the administrator of the service to ensure "
+                        + "that the Translation Template Bundle is installed correctly. "
+                        + "If the problem persists, the Executable Test Suite developer should be "
+                        + "notified of the missing translation.");
             }
             return null;
         }
-        // Language search order: the passed language, english or the first value
-        final Translation translation = languageToTranslationsMap.getOrDefault(language,
-                languageToTranslationsMap.getOrDefault("en",
-                        languageToTranslationsMap.values().iterator().next()));
-        return translation.translate(parameters);
+        return translation;
+    }
+
+    /**
+     * Creates a lookup table for one language, that contains the translations of this bundle and of all parent
+     * bundles. Translations of this bundle override the translations of the parent bundles.
+     */
+    private CompiledTranslations compile(final String language) {
+        final Map<String, Translation> languageTranslations = new HashMap<>();
+        String missingParentRef = null;
+        if (this.parentRef != null) {
+            final Optional<TranslationTemplateBundle> parent = callback.itemById(this.parentRef);
+            if (parent.isPresent()) {
+                final CompiledTranslations parentTranslations = parent.get().compiled.computeIfAbsent(
+                        language, parent.get()::compile);
+                languageTranslations.putAll(parentTranslations.translations);
+                missingParentRef = parentTranslations.missingParentRef;
+            } else {
+                missingParentRef = this.parentRef;
+            }
+        }
+        for (final Map.Entry<String, Map<String, Translation>> entry : this.translations.entrySet()) {
+            // Language search order: the passed language, english or the first value
+            final Map<String, Translation> languageToTranslationsMap = entry.getValue();
+            final Translation translation = languageToTranslationsMap.getOrDefault(language,
+                    languageToTranslationsMap.getOrDefault("en",
+                            languageToTranslationsMap.values().iterator().next()));
+            languageTranslations.put(entry.getKey(), translation);
+        }
+        return new CompiledTranslations(languageTranslations, missingParentRef);
     }
 }
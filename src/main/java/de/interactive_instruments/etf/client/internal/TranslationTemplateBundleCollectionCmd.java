@@ -35,10 +35,20 @@ class TranslationTemplateBundleCollectionCmd {
 
     private final static String PATH = "/TranslationTemplateBundles";
 
-    private static class TranslationTemplateBundleCollection extends AbstractEtfCollection<TranslationTemplateBundle> {
+    static class TranslationTemplateBundleCollection extends AbstractEtfCollection<TranslationTemplateBundle> {
 
-        TranslationTemplateBundleCollection(final InstanceCtx ctx, final Collection<JSONObject> jsonObjects) {
-            super(jsonObjects, ctx);
+        TranslationTemplateBundleCollection(final InstanceCtx ctx, final Collection<JSONObject> jsonObjects,
+                final TranslationTemplateBundleCollection previous) {
+            super(jsonObjects, ctx, previous);
+            if (previous != null) {
+                // the reused bundles may still be used with the previous collection, so they are only relinked
+                // after all bundles have been added
+                for (final TranslationTemplateBundle bundle : this.items.values()) {
+                    if (previous.items.get(bundle.eid()) == bundle) {
+                        bundle.relink(this);
+                    }
+                }
+            }
         }
 
         @Override
@@ -49,21 +59,23 @@ class TranslationTemplateBundleCollectionCmd {
 
     private final JsonGetRequest apiCall;
     private final InstanceCtx ctx;
-    private TranslationTemplateBundleCollection cachedCollection;
+    private final CollectionCache<TranslationTemplateBundleCollection> cache;
 
     TranslationTemplateBundleCollectionCmd(final InstanceCtx ctx) {
         this.ctx = ctx;
-        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx);
+        this.apiCall = new JsonGetRequest(URI.create(ctx.baseUrl.toString() + PATH), ctx, true);
+        this.cache = new CollectionCache<>(ctx);
     }
 
-    synchronized EtfCollection<TranslationTemplateBundle> query() throws RemoteInvocationException {
-        if (apiCall.upToDate()) {
-            return cachedCollection;
-        } else {
-            final Collection<JSONObject> result = new JSONObjectOrArray(apiCall.query().getJSONObject("EtfItemCollection")
+    EtfCollection<TranslationTemplateBundle> query() throws RemoteInvocationException {
+        return cache.get(cachedCollection -> {
+            final JSONObject response = apiCall.queryIfModified(cachedCollection != null);
+            if (response == null) {
+                return cachedCollection;
+            }
+            final Collection<JSONObject> result = new JSONObjectOrArray(response.getJSONObject("EtfItemCollection")
                     .getJSONObject("translationTemplateBundles")).get("TranslationTemplateBundle");
-            cachedCollection = new TranslationTemplateBundleCollection(this.ctx, result);
-        }
-        return cachedCollection;
+            return new TranslationTemplateBundleCollection(this.ctx, result, cachedCollection);
+        });
     }
 }
@@ -16,6 +16,9 @@
  */
 package de.interactive_instruments.etf.client.internal;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
 
 import de.interactive_instruments.etf.client.*;
@@ -24,7 +27,9 @@ import de.interactive_instruments.etf.client.*;
  * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
  */
 public class TrtExecutionContext {
-    private Iterable<ExecutableTestSuite> allExecutableTestSuites;
+    private volatile Iterable<ExecutableTestSuite> allExecutableTestSuites;
+    // result contexts of all ETS, only replaced if another ETS collection is injected
+    private volatile Map<String, AbstractResult.ResultCtx> resultCtxs;
     final InstanceCtx instanceCtx;
     private final ExecutorService executor;
 
@@ -33,10 +38,14 @@ public class TrtExecutionContext {
         this.instanceCtx = ctx;
         this.executor = executor;
         this.allExecutableTestSuites = allExecutableTestSuites;
+        this.resultCtxs = AbstractResult.ResultCtx.index(ctx, allExecutableTestSuites, Collections.emptyMap());
     }
 
-    public void injectExecutableTestSuites(final Iterable<ExecutableTestSuite> allExecutableTestSuites) {
-        this.allExecutableTestSuites = allExecutableTestSuites;
+    public synchronized void injectExecutableTestSuites(final Iterable<ExecutableTestSuite> allExecutableTestSuites) {
+        if (this.allExecutableTestSuites != allExecutableTestSuites) {
+            this.resultCtxs = AbstractResult.ResultCtx.index(this.instanceCtx, allExecutableTestSuites, this.resultCtxs);
+            this.allExecutableTestSuites = allExecutableTestSuites;
+        }
     }
 
     TestRun start(final TestRunTemplate testRunTemplate, final TestObject testObject,
@@ -45,7 +54,17 @@ public class TrtExecutionContext {
                 this.instanceCtx,
                 this.executor,
                 testRunTemplate,
-                this.allExecutableTestSuites,
+                this.resultCtxs,
                 testObject, testRunObserver, parameters);
     }
+
+    CompletionStage<TestRunResult> startAsync(final TestRunTemplate testRunTemplate, final TestObject testObject,
+            final RunParameters parameters, final TestResultVisitor visitor) {
+        return TestRunCmd.startAsync(
+                this.instanceCtx,
+                this.executor,
+                testRunTemplate,
+                this.resultCtxs,
+                testObject, parameters, visitor);
+    }
 }
@@ -0,0 +1,153 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class EidIndexTest {
+
+    private static JSONObject item(final String eid, final String label, final String description) {
+        final JSONObject item = new JSONObject().put("id", eid).put("label", label);
+        if (description != null) {
+            item.put("description", description);
+        }
+        return item;
+    }
+
+    @Test
+    void allSizes() {
+        // covers the growth of the table at each power of two
+        for (int size = 0; size <= 300; size++) {
+            final EidIndex.Builder builder = new EidIndex.Builder();
+            for (int i = 0; i < size; i++) {
+                builder.add(item("EID" + i, "label " + i, i % 2 == 0 ? "description " + i : null));
+            }
+            final EidIndex index = builder.build();
+            for (int i = 0; i < size; i++) {
+                final int position = index.resolve("EID" + i);
+                assertEquals("label " + i, index.label(position));
+                assertEquals(i % 2 == 0 ? "description " + i : "", index.description(position));
+            }
+            assertFalse(index.contains("EID" + size));
+            assertFalse(index.contains(""));
+        }
+    }
+
+    @Test
+    void hashCollisions() {
+        // "Aa" and "BB" have the same hash code, so all combinations of them collide
+        final String[] parts = {"Aa", "BB"};
+        final EidIndex.Builder builder = new EidIndex.Builder();
+        int count = 0;
+        for (final String a : parts) {
+            for (final String b : parts) {
+                for (final String c : parts) {
+                    for (final String d : parts) {
+                        final String eid = a + b + c + d;
+                        assertEquals("AaAaAaAa".hashCode(), eid.hashCode());
+                        builder.add(item(eid, "label " + eid, null));
+                        count++;
+                    }
+                }
+            }
+        }
+        assertEquals(16, count);
+        final EidIndex index = builder.build();
+        for (final String a : parts) {
+            for (final String b : parts) {
+                for (final String c : parts) {
+                    for (final String d : parts) {
+                        final String eid = a + b + c + d;
+                        assertEquals("label " + eid, index.label(index.resolve(eid)));
+                    }
+                }
+            }
+        }
+        assertFalse(index.contains("AaAaAaBBAa"));
+        assertThrows(NullPointerException.class, () -> index.resolve("AaAaAaAaAa"));
+    }
+
+    @Test
+    void duplicateEids() {
+        final EidIndex index = new EidIndex.Builder()
+                .add(item("EID1", "first", null))
+                .add(item("EID2", "other", null))
+                .add(item("EID1", "second", null))
+                .build();
+        assertEquals("second", index.label(index.resolve("EID1")));
+        assertEquals("other", index.label(index.resolve("EID2")));
+    }
+
+    @Test
+    void executableTestSuiteItems() throws IOException {
+        final InstanceCtx ctx = Fixtures.ctx(false);
+        try {
+            final EidIndex index = Fixtures.ets(ctx).eidIndex();
+            for (final String eid : new String[]{"EIDets", "EIDm1", "EIDc1", "EIDs1", "EIDs2", "EIDa1", "EIDa2",
+                    "EIDa3"}) {
+                assertTrue(index.contains(eid), eid);
+            }
+            assertEquals("Module 1", index.label(index.resolve("EIDm1")));
+            assertEquals("d1", index.description(index.resolve("EIDa1")));
+            assertEquals("", index.description(index.resolve("EIDa2")));
+        } finally {
+            ctx.close();
+        }
+    }
+
+    @Test
+    void concurrentFirstUse() throws Exception {
+        final InstanceCtx ctx = Fixtures.ctx(false);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int run = 0; run < 100; run++) {
+                final ExecutableTestSuiteImpl ets = Fixtures.ets(ctx);
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<EidIndex>> futures = new ArrayList<>();
+                for (int i = 0; i < 8; i++) {
+                    futures.add(executor.submit(() -> {
+                        start.await();
+                        return ets.eidIndex();
+                    }));
+                }
+                start.countDown();
+                final EidIndex index = futures.get(0).get();
+                assertTrue(index.contains("EIDa3"));
+                for (final Future<EidIndex> future : futures) {
+                    assertSame(index, future.get());
+                }
+            }
+        } finally {
+            executor.shutdown();
+            ctx.close();
+        }
+    }
+}
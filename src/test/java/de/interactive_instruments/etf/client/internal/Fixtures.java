@@ -0,0 +1,94 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.json.JSONObject;
+
+import de.interactive_instruments.etf.client.EtfCollection;
+import de.interactive_instruments.etf.client.TestRunPollingStrategy;
+
+/**
+ * Offline fixtures for the unit tests, read from the json folder of the test resources.
+ *
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+final class Fixtures {
+
+    private Fixtures() {}
+
+    static String resource(final String name) throws IOException {
+        try (final InputStream in = Fixtures.class.getResourceAsStream("/json/" + name)) {
+            if (in == null) {
+                throw new FileNotFoundException("Test resource json/" + name + " not found");
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Returns a reader that delivers the text in chunks of varying size, so that tokens are split across reads.
+     */
+    static Reader chunkedReader(final String text) {
+        return new Reader() {
+            private int pos;
+            private int chunk;
+
+            @Override
+            public int read(final char[] cbuf, final int off, final int len) {
+                if (pos == text.length()) {
+                    return -1;
+                }
+                chunk = chunk % 7 + 1;
+                final int n = Math.min(Math.min(len, chunk), text.length() - pos);
+                text.getChars(pos, pos + n, cbuf, off);
+                pos += n;
+                return n;
+            }
+
+            @Override
+            public void close() {}
+        };
+    }
+
+    static InstanceCtx ctx(final boolean lazyResults) {
+        return new InstanceCtx(null, URI.create("http://localhost/v2"), null, Locale.ENGLISH, Duration.ofSeconds(1),
+                null, Duration.ofSeconds(1), 1, 8, Duration.ofSeconds(1), TestRunPollingStrategy.adaptive(),
+                Integer.MAX_VALUE, null, lazyResults, null, Duration.ofMinutes(1), false, ForkJoinPool.commonPool());
+    }
+
+    static ExecutableTestSuiteImpl ets(final InstanceCtx ctx) throws IOException {
+        final EtfCollection<TranslationTemplateBundle> translationTemplateBundles =
+                new TranslationTemplateBundleCollectionCmd.TranslationTemplateBundleCollection(ctx,
+                        Collections.singleton(new JSONObject(resource("ttb.json"))), null);
+        return new ExecutableTestSuiteImpl(new EtsExecutionContext(ctx, ctx.executor()),
+                new JSONObject(resource("ets.json")), translationTemplateBundles);
+    }
+
+    static Map<String, AbstractResult.ResultCtx> resultCtxs(final InstanceCtx ctx) throws IOException {
+        final ExecutableTestSuiteImpl ets = ets(ctx);
+        return Collections.singletonMap(ets.eid(), new AbstractResult.ResultCtx(ctx, ets));
+    }
+}
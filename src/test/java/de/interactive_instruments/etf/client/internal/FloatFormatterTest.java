@@ -0,0 +1,124 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class FloatFormatterTest {
+
+    private final static String[] tokens = {"x", "count", "coord", "Coordinates", "distance", "maxDistance", "HEIGHT",
+            "meter", "parameter", "value"};
+
+    private final static Object[] values = {0, -1, 42, Integer.MAX_VALUE, Long.MIN_VALUE, 1.0, -0.0, 0.5, 1.123456789,
+            -98765.4321, 1e-10, 1e21, Double.NaN, Double.POSITIVE_INFINITY, 2.5f, -3.75f,
+            new BigDecimal("12345678901234567890.123456789"), new BigInteger("123456789012345678901234567890"),
+            "text", true};
+
+    private static DecimalFormat[] formats() {
+        final DecimalFormat halfUp = new DecimalFormat("0.00", new DecimalFormatSymbols(Locale.ENGLISH));
+        halfUp.setRoundingMode(RoundingMode.HALF_UP);
+        return new DecimalFormat[]{
+                new DecimalFormat("0.###", new DecimalFormatSymbols(Locale.ENGLISH)),
+                new DecimalFormat("#,##0.00", new DecimalFormatSymbols(Locale.GERMAN)),
+                new DecimalFormat("0.###E0", new DecimalFormatSymbols(Locale.ENGLISH)),
+                new DecimalFormat("00.0000%", new DecimalFormatSymbols(Locale.FRENCH)),
+                halfUp
+        };
+    }
+
+    /**
+     * The formatting of translation arguments before the formatter was introduced
+     */
+    private static String expected(final DecimalFormat format, final String token, final Object value) {
+        final Pattern floatingTokensPattern = Pattern.compile(".*coord.*|.*distance.*|.*height.*|.*meter.*",
+                Pattern.CASE_INSENSITIVE);
+        if (value instanceof Number) {
+            if (value instanceof Double || value instanceof Float || floatingTokensPattern.matcher(token).matches()) {
+                return format.format(value);
+            }
+        }
+        return value.toString();
+    }
+
+    @Test
+    void parityWithDecimalFormat() {
+        for (final DecimalFormat format : formats()) {
+            final FloatFormatter formatter = new FloatFormatter(format);
+            // twice, to check that the reused buffer is reset
+            for (int i = 0; i < 2; i++) {
+                for (final String token : tokens) {
+                    for (final Object value : values) {
+                        assertEquals(expected(format, token, value), formatter.format(token, value),
+                                format.toPattern() + " " + token + " " + value);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void formatIsCopied() {
+        final DecimalFormat format = new DecimalFormat("0.##", new DecimalFormatSymbols(Locale.ENGLISH));
+        final FloatFormatter formatter = new FloatFormatter(format);
+        format.applyPattern("0.0000");
+        assertEquals("1.12", formatter.format("x", 1.123456789));
+    }
+
+    @Test
+    void concurrentFormatting() throws Exception {
+        final DecimalFormat format = new DecimalFormat("#,##0.0###", new DecimalFormatSymbols(Locale.GERMAN));
+        final FloatFormatter formatter = new FloatFormatter(format);
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            expected.add(expected(format, "coord", i / 7.0));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        assertEquals(expected.get(i), formatter.format("coord", i / 7.0));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
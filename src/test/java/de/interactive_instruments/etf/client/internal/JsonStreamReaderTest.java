@@ -0,0 +1,192 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class JsonStreamReaderTest {
+
+    /**
+     * Reads the next value into maps, lists and the primitive values returned by nextValue()
+     */
+    private static Object read(final JsonStreamReader reader) throws IOException {
+        switch (reader.peek()) {
+        case BEGIN_OBJECT:
+            final Map<String, Object> object = new LinkedHashMap<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                object.put(name, read(reader));
+            }
+            reader.endObject();
+            return object;
+        case BEGIN_ARRAY:
+            final List<Object> array = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext()) {
+                array.add(read(reader));
+            }
+            reader.endArray();
+            return array;
+        default:
+            return reader.nextValue();
+        }
+    }
+
+    private static Object readDocument(final JsonStreamReader reader) throws IOException {
+        final Object value = read(reader);
+        assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+        return value;
+    }
+
+    private static void assertParity(final String json) throws IOException {
+        final Map<String, Object> expected = new JSONObject(json).toMap();
+        assertEquals(expected, readDocument(new JsonStreamReader(new StringReader(json))));
+        assertEquals(expected, readDocument(new JsonStreamReader(Fixtures.chunkedReader(json))));
+    }
+
+    @Test
+    void escapes() throws IOException {
+        final String json = Fixtures.resource("escapes.json");
+        assertParity(json);
+        final Object parsed = readDocument(new JsonStreamReader(new StringReader(json)));
+        assertTrue(parsed instanceof Map);
+        final Map<?, ?> values = (Map<?, ?>) parsed;
+        assertEquals("a \"quoted\" word", values.get("quote"));
+        assertEquals("C:\\path\\to\\file", values.get("backslash"));
+        assertEquals("http://example.com/", values.get("slash"));
+        assertEquals("tab\tnewline\ncarriage\rbackspace\bformfeed\f", values.get("controls"));
+        assertEquals("\u00e4\u00f6\u00fc \u20ac A\u00df", values.get("unicode"));
+        assertEquals("\ud83d\ude00", values.get("surrogates"));
+        assertEquals("\\", values.get("only\"escape"));
+        assertEquals(List.of("\"", "\\\"", "end\\"), values.get("mixed"));
+    }
+
+    @Test
+    void numberTypesLikeOrgJson() throws IOException {
+        final String json = Fixtures.resource("numbers.json");
+        assertParity(json);
+        final JSONObject expected = new JSONObject(json);
+        final Map<?, ?> values = (Map<?, ?>) readDocument(new JsonStreamReader(new StringReader(json)));
+        for (final String key : expected.keySet()) {
+            final Object expectedValue = expected.get(key);
+            if (expectedValue instanceof JSONArray) {
+                final List<?> list = (List<?>) values.get(key);
+                for (int i = 0; i < list.size(); i++) {
+                    assertEquals(((JSONArray) expectedValue).get(i).getClass(), list.get(i).getClass(), key);
+                }
+            } else if (expectedValue != JSONObject.NULL) {
+                assertEquals(expectedValue.getClass(), values.get(key).getClass(), key);
+            }
+        }
+        assertEquals(Integer.class, values.get("int").getClass());
+        assertEquals(Long.class, values.get("aboveInt").getClass());
+        assertEquals(String.class, values.get("aboveLong").getClass());
+        assertEquals(Double.class, values.get("negativeZero").getClass());
+        assertEquals(String.class, values.get("hugeExponent").getClass());
+        assertEquals(String.class, values.get("leadingZero").getClass());
+        assertEquals(String.class, values.get("leadingDot").getClass());
+        assertEquals(String.class, values.get("plusSign").getClass());
+    }
+
+    @Test
+    void literalsAndEscapesAcrossBufferBoundary() throws IOException {
+        final String values = "[\"\\u00e4\\\"\\\\\",12345.678,-9876543210,true,false,null,\"plain\",1e-7]";
+        for (int padding = 8150; padding < 8200; padding++) {
+            final StringBuilder json = new StringBuilder(padding + values.length() + 32);
+            json.append("{\"p\":\"");
+            for (int i = 0; i < padding; i++) {
+                json.append('x');
+            }
+            json.append("\",\"v\":").append(values).append('}');
+            assertParity(json.toString());
+        }
+    }
+
+    @Test
+    void skipNestedValues() throws IOException {
+        final String json = Fixtures.resource("nested.json");
+        for (final JsonStreamReader reader : new JsonStreamReader[]{
+                new JsonStreamReader(new StringReader(json)),
+                new JsonStreamReader(Fixtures.chunkedReader(json))}) {
+            reader.beginObject();
+            assertEquals("before", reader.nextName());
+            assertEquals("value", reader.nextString());
+            assertEquals("skipped", reader.nextName());
+            reader.skipValue();
+            assertEquals("after", reader.nextName());
+            assertEquals(new JSONObject(json).getJSONArray("after").toList(), read(reader));
+            assertEquals("last", reader.nextName());
+            reader.skipValue();
+            assertFalse(reader.hasNext());
+            reader.endObject();
+            assertEquals(JsonStreamReader.Token.END_DOCUMENT, reader.peek());
+        }
+    }
+
+    @Test
+    void nextLong() throws IOException {
+        final JsonStreamReader reader = new JsonStreamReader(
+                new StringReader("[9223372036854775807, 1.0E3, \"42\", 1.5]"));
+        reader.beginArray();
+        assertEquals(Long.MAX_VALUE, reader.nextLong());
+        assertEquals(1000, reader.nextLong());
+        assertEquals(42, reader.nextLong());
+        assertThrows(JSONException.class, reader::nextLong);
+    }
+
+    @Test
+    void malformedInput() {
+        final String[] malformed = {
+                "",
+                "{",
+                "{\"a\"}",
+                "{\"a\" 1}",
+                "{\"a\":}",
+                "{\"a\":1,}",
+                "{a:1}",
+                "[1 2]",
+                "[1,]",
+                "[\"unterminated",
+                "[\"escape\\",
+                "[\"\\u12G4\"]",
+                "{} []",
+                "{\"a\":1]",
+        };
+        for (final String json : malformed) {
+            assertThrows(JSONException.class, () -> readDocument(new JsonStreamReader(new StringReader(json))),
+                    json);
+            assertThrows(JSONException.class, () -> {
+                final JsonStreamReader reader = new JsonStreamReader(new StringReader(json));
+                reader.skipValue();
+                reader.peek();
+            }, json);
+        }
+    }
+}
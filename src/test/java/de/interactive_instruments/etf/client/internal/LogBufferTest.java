@@ -0,0 +1,143 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class LogBufferTest {
+
+    @TempDir
+    Path spillDirectory;
+
+    private static List<String> lines(final int from, final int to) {
+        final List<String> lines = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            lines.add("entry " + i);
+        }
+        return lines;
+    }
+
+    @Test
+    void growsUntilCapacity() {
+        final LogBuffer buffer = new LogBuffer(Integer.MAX_VALUE, null);
+        for (int i = 0; i < 1000; i += 100) {
+            buffer.append(lines(i, i + 100));
+        }
+        assertEquals(1000, buffer.count());
+        assertEquals(lines(0, 1000), buffer.entries(0));
+        assertEquals(lines(990, 1000), buffer.entries(990));
+        assertTrue(buffer.entries(1000).isEmpty());
+        assertTrue(buffer.entries(5000).isEmpty());
+    }
+
+    @Test
+    void wrapAround() {
+        final LogBuffer buffer = new LogBuffer(10, null);
+        buffer.append(lines(0, 7));
+        assertEquals(lines(0, 7), buffer.entries(0));
+        buffer.append(lines(7, 13));
+        assertEquals(13, buffer.count());
+        // only the last 10 entries are retained
+        assertEquals(lines(3, 13), buffer.entries(0));
+        assertEquals(lines(5, 13), buffer.entries(5));
+        buffer.append(lines(13, 40));
+        assertEquals(lines(30, 40), buffer.entries(0));
+        assertEquals(lines(38, 40), buffer.entries(38));
+    }
+
+    @Test
+    void spilling() throws IOException {
+        final LogBuffer buffer = new LogBuffer(5, spillDirectory);
+        buffer.append(lines(0, 3));
+        buffer.append(List.of("multi\nline", "back\\slash", "carriage\rreturn"));
+        buffer.append(lines(6, 20));
+        final List<String> expected = new ArrayList<>(lines(0, 3));
+        expected.addAll(List.of("multi\nline", "back\\slash", "carriage\rreturn"));
+        expected.addAll(lines(6, 20));
+        assertEquals(expected, buffer.entries(0));
+        assertEquals(expected.subList(4, 20), buffer.entries(4));
+        // retained in memory
+        assertEquals(lines(16, 20), buffer.entries(16));
+
+        try (final Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(1, files.count());
+        }
+        buffer.close();
+        try (final Stream<Path> files = Files.list(spillDirectory)) {
+            assertEquals(0, files.count());
+        }
+        assertEquals(lines(15, 20), buffer.entries(0));
+    }
+
+    @Test
+    void concurrentAppendAndEntries() throws InterruptedException {
+        final int capacity = 64;
+        final int total = 200_000;
+        final LogBuffer buffer = new LogBuffer(capacity, null);
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicReference<String> error = new AtomicReference<>();
+        final List<Thread> readers = new ArrayList<>();
+        for (int r = 0; r < 4; r++) {
+            final Thread reader = new Thread(() -> {
+                while (!done.get() && error.get() == null) {
+                    final long from = buffer.count() / 2;
+                    final List<String> entries = buffer.entries(from);
+                    if (entries.size() > capacity) {
+                        error.set("More entries than the capacity: " + entries.size());
+                    }
+                    // the returned entries must be consecutive
+                    for (int i = 1; i < entries.size(); i++) {
+                        final int previous = Integer.parseInt(entries.get(i - 1).substring(6));
+                        final int current = Integer.parseInt(entries.get(i).substring(6));
+                        if (current != previous + 1) {
+                            error.set("Entries not consecutive: " + entries.stream().collect(Collectors.joining(",")));
+                            break;
+                        }
+                    }
+                }
+            });
+            reader.start();
+            readers.add(reader);
+        }
+        for (int i = 0; i < total; i += 7) {
+            buffer.append(lines(i, Math.min(i + 7, total)));
+        }
+        done.set(true);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(error.get());
+        assertEquals(total, buffer.count());
+        assertEquals(lines(total - capacity, total), buffer.entries(0));
+    }
+}
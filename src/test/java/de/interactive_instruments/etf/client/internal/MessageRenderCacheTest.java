@@ -0,0 +1,142 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class MessageRenderCacheTest {
+
+    private static ResultMessage message(final int argument) {
+        return new ResultMessage.Builder().ref("TR.msg").argument("x", argument).build();
+    }
+
+    @Test
+    void cachedByTemplateIdentityAndArguments() {
+        final MessageRenderCache cache = new MessageRenderCache(16);
+        final Object template = new Object();
+        final AtomicInteger renderings = new AtomicInteger();
+
+        final String first = cache.render(template, message(1), () -> {
+            renderings.incrementAndGet();
+            return new String("Value 1");
+        });
+        // an equal message is not rendered again and returns the same instance
+        assertSame(first, cache.render(template, message(1), () -> {
+            renderings.incrementAndGet();
+            return new String("Value 1");
+        }));
+        assertEquals(1, renderings.get());
+
+        // other arguments or another template are rendered
+        assertEquals("Value 2", cache.render(template, message(2), () -> {
+            renderings.incrementAndGet();
+            return "Value 2";
+        }));
+        assertEquals("Other 1", cache.render(new Object(), message(1), () -> {
+            renderings.incrementAndGet();
+            return "Other 1";
+        }));
+        assertEquals(3, renderings.get());
+        assertEquals(3, cache.size());
+
+        // messages that can not be rendered are not cached
+        assertNull(cache.render(template, message(3), () -> null));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void disabled() {
+        final MessageRenderCache cache = new MessageRenderCache(0);
+        final Object template = new Object();
+        final AtomicInteger renderings = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.render(template, message(1), () -> "Value " + renderings.incrementAndGet());
+        }
+        assertEquals(3, renderings.get());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void eviction() {
+        final MessageRenderCache cache = new MessageRenderCache(100);
+        final Object template = new Object();
+        for (int i = 0; i < 100; i++) {
+            final int value = i;
+            cache.render(template, message(i), () -> "Value " + value);
+        }
+        assertEquals(100, cache.size());
+        // exceeding the capacity evicts a quarter of the entries
+        cache.render(template, message(100), () -> "Value 100");
+        assertEquals(75, cache.size());
+
+        for (int i = 101; i < 10_000; i++) {
+            final int value = i;
+            assertEquals("Value " + i, cache.render(template, message(i), () -> "Value " + value));
+            assertTrue(cache.size() <= 100);
+        }
+        // evicted messages are rendered again
+        final AtomicInteger renderings = new AtomicInteger();
+        for (int i = 0; i < 10_000; i++) {
+            final int value = i;
+            assertEquals("Value " + i, cache.render(template, message(i), () -> {
+                renderings.incrementAndGet();
+                return "Value " + value;
+            }));
+        }
+        assertTrue(renderings.get() >= 9_900);
+    }
+
+    @Test
+    void concurrentEviction() throws InterruptedException, ExecutionException {
+        final int capacity = 64;
+        final int threads = 8;
+        final MessageRenderCache cache = new MessageRenderCache(capacity);
+        final Object template = new Object();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    final ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50_000; i++) {
+                        final int value = random.nextInt(1000);
+                        assertEquals("Value " + value, cache.render(template, message(value), () -> "Value " + value));
+                    }
+                }));
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // entries added while another thread evicts may exceed the capacity temporarily, the next addition
+        // evicts them
+        cache.render(template, message(-1), () -> "Value -1");
+        assertTrue(cache.size() <= capacity, "size " + cache.size());
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class MetadataCacheTest {
+
+    private final static URI URL = URI.create("http://localhost/v2/ExecutableTestSuites");
+
+    @TempDir
+    Path directory;
+
+    private Path cacheFile() throws IOException {
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".bin")).findFirst().orElse(null);
+        }
+    }
+
+    private void assertIgnoredAndDeleted(final MetadataCache cache, final byte[] content) throws IOException {
+        Files.write(cacheFile(), content);
+        assertNull(cache.load(URL, Locale.ENGLISH));
+        assertNull(cacheFile());
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        final MetadataCache cache = new MetadataCache(directory);
+        assertNull(cache.load(URL, Locale.ENGLISH));
+        final JSONObject body = new JSONObject(Fixtures.resource("ets.json"));
+        body.put("numbers", new JSONObject(Fixtures.resource("numbers.json")));
+        cache.store(URL, Locale.ENGLISH, "\"etag\"", null, body);
+
+        final MetadataCache.Entry entry = cache.load(URL, Locale.ENGLISH);
+        assertNotNull(entry);
+        assertEquals("\"etag\"", entry.eTag);
+        assertNull(entry.lastModified);
+        assertTrue(body.similar(entry.body));
+        // the language is part of the key
+        assertNull(cache.load(URL, Locale.GERMAN));
+    }
+
+    @Test
+    void truncatedFilesAreIgnored() throws IOException {
+        final MetadataCache cache = new MetadataCache(directory);
+        cache.store(URL, Locale.ENGLISH, "\"etag\"", "Wed, 21 Oct 2015 07:28:00 GMT",
+                new JSONObject(Fixtures.resource("ets.json")));
+        final byte[] content = Files.readAllBytes(cacheFile());
+        for (int length = 0; length < content.length; length += 7) {
+            cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+            assertIgnoredAndDeleted(cache, Arrays.copyOf(content, length));
+        }
+    }
+
+    private static byte[] header(final int... values) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x45544643);
+        out.writeByte(1);
+        for (final int value : values) {
+            out.writeByte(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] concat(final byte[] header, final int... ints) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.write(header);
+        for (final int value : ints) {
+            out.writeInt(value);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    void corruptFilesAreIgnored() throws IOException {
+        final MetadataCache cache = new MetadataCache(directory);
+
+        // unknown version
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        final byte[] content = Files.readAllBytes(cacheFile());
+        content[4] = 99;
+        assertIgnoredAndDeleted(cache, content);
+
+        // string with a length beyond the end of the file
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, concat(header(1), -1, Integer.MAX_VALUE));
+
+        // negative string length
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, concat(header(1), -1, -5));
+
+        // array and object with too many items
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, concat(header(0, 0, 7), Integer.MAX_VALUE));
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, concat(header(0, 0, 8), 1000));
+
+        // invalid string reference
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, concat(header(1), 3));
+
+        // body that is not an object
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, header(0, 0, 1));
+
+        // deeply nested arrays
+        final ByteArrayOutputStream nested = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(nested);
+        out.write(header(0, 0));
+        for (int i = 0; i < 100_000; i++) {
+            out.writeByte(7);
+            out.writeInt(1);
+        }
+        cache.store(URL, Locale.ENGLISH, null, null, new JSONObject());
+        assertIgnoredAndDeleted(cache, nested.toByteArray());
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import de.interactive_instruments.etf.client.TestResult;
+import de.interactive_instruments.etf.client.TestTaskResult;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class TestResultIteratorTest {
+
+    private static TestTaskResult parse(final InstanceCtx ctx, final String json) throws IOException {
+        final Map<String, AbstractResult.ResultCtx> resultCtxs = Fixtures.resultCtxs(ctx);
+        final ResultStore store = new TestRunResultParser(ctx, resultCtxs, Fixtures.chunkedReader(json), null)
+                .parse().store();
+        store.trim();
+        if (!ctx.lazyResults) {
+            store.resolve(null);
+        }
+        return store.testTaskResults().get(0);
+    }
+
+    @Test
+    void skipsIgnoredResults() throws IOException {
+        skipsIgnoredResults(false);
+        skipsIgnoredResults(true);
+    }
+
+    private static void skipsIgnoredResults(final boolean lazy) throws IOException {
+        final InstanceCtx ctx = Fixtures.ctx(lazy);
+        try {
+            final TestTaskResult task = parse(ctx, Fixtures.resource("result.json"));
+            final List<String> labels = new ArrayList<>();
+            task.forEach(r -> labels.add(r.label()));
+            // the Test Assertion Result labelled IGNORE is skipped
+            assertEquals(List.of("Module 1", "Case 1", "Relabeled step", "A1", "A2", "Step 2"), labels);
+            assertEquals(labels, task.stream().map(TestResult::label).collect(Collectors.toList()));
+        } finally {
+            ctx.close();
+        }
+    }
+
+    @Test
+    void skipsRelabeledResults() throws IOException {
+        skipsRelabeledResults(false);
+        skipsRelabeledResults(true);
+    }
+
+    private static void skipsRelabeledResults(final boolean lazy) throws IOException {
+        final InstanceCtx ctx = Fixtures.ctx(lazy);
+        try {
+            // relabel the Test Step Result to IGNORE
+            final String json = Fixtures.resource("result.json").replace("UmVsYWJlbGVkIHN0ZXA=", "SUdOT1JF");
+            final TestTaskResult task = parse(ctx, json);
+            final List<String> labels = new ArrayList<>();
+            task.forEach(r -> labels.add(r.label()));
+            // the sub results of the ignored Test Step Result are still traversed
+            assertEquals(List.of("Module 1", "Case 1", "A1", "A2", "Step 2"), labels);
+            assertEquals(labels, task.stream().map(TestResult::label).collect(Collectors.toList()));
+            assertEquals(labels.size(), task.parallelStream().count());
+        } finally {
+            ctx.close();
+        }
+    }
+}
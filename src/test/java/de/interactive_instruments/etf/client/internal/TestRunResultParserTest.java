@@ -0,0 +1,245 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.interactive_instruments.etf.client.*;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class TestRunResultParserTest {
+
+    private InstanceCtx ctx;
+    private Map<String, AbstractResult.ResultCtx> resultCtxs;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ctx = Fixtures.ctx(false);
+        resultCtxs = Fixtures.resultCtxs(ctx);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ctx.close();
+    }
+
+    private TestRunResultParser parse(final String json, final TestResultVisitor visitor) throws IOException {
+        return new TestRunResultParser(ctx, resultCtxs, Fixtures.chunkedReader(json), visitor).parse();
+    }
+
+    private static Collection<? extends TestResult> children(final TestResult result) {
+        if (result instanceof TestTaskResult) {
+            return ((TestTaskResult) result).testModuleResults();
+        } else if (result instanceof TestModuleResult) {
+            return ((TestModuleResult) result).testCaseResults();
+        } else if (result instanceof TestCaseResult) {
+            return ((TestCaseResult) result).testStepResults();
+        } else if (result instanceof TestStepResult) {
+            return ((TestStepResult) result).testAssertionResults();
+        }
+        return Collections.emptyList();
+    }
+
+    @Test
+    void parseIntoStore() throws IOException {
+        final TestRunResultParser parser = parse(Fixtures.resource("result.json"), null);
+        assertEquals("2020-01-01T10:00:00.000+01:00", parser.startTimestamp());
+        assertEquals(6, parser.duration());
+        final ResultStore store = parser.store();
+        store.trim();
+
+        final List<TestTaskResult> tasks = store.testTaskResults();
+        assertEquals(1, tasks.size());
+        final TestTaskResult task = tasks.get(0);
+        assertEquals(ResultStatus.FAILED, task.resultStatus());
+        assertEquals(6, task.duration());
+
+        final TestModuleResult module = task.testModuleResults().iterator().next();
+        assertEquals("Module 1", module.label());
+        // the Test Case Result without a reference is skipped
+        assertEquals(1, module.testCaseResults().size());
+        final TestCaseResult testCase = module.testCaseResults().iterator().next();
+        assertEquals("Case 1", testCase.label());
+
+        // the invoked Test Step Result follows the invoking one
+        final List<TestStepResult> steps = new ArrayList<>(testCase.testStepResults());
+        assertEquals(2, steps.size());
+        assertEquals(ResultStatus.FAILED, steps.get(0).resultStatus());
+        // relabeled by the attachment
+        assertEquals("Relabeled step", steps.get(0).label());
+        assertEquals(Map.of("relabel", "Relabeled step"), steps.get(0).getAttachment());
+        assertEquals("Step 2", steps.get(1).label());
+        assertEquals(ResultStatus.PASSED, steps.get(1).resultStatus());
+
+        final List<TestAssertionResult> assertions = new ArrayList<>(steps.get(0).testAssertionResults());
+        assertEquals(3, assertions.size());
+        assertEquals("A1", assertions.get(0).label());
+        assertEquals("d1", assertions.get(0).description());
+        assertEquals(List.of("Value 42 at 1.123456789", "Other"), new ArrayList<>(assertions.get(0).messages()));
+        assertEquals(List.of("Wert 42 bei 1.123456789", "Anderes"),
+                new ArrayList<>(assertions.get(0).messages(Locale.GERMAN)));
+        assertEquals(ResultStatus.PASSED, assertions.get(1).resultStatus());
+        assertTrue(assertions.get(1).messages().isEmpty());
+
+        final Map<String, Long> groups = new HashMap<>();
+        for (final MessageGroup group : task.messageGroups()) {
+            groups.put(group.templateRef(), group.count());
+        }
+        assertEquals(Map.of("TR.msg", 1L, "TR.other", 2L), groups);
+    }
+
+    @Test
+    void visitorReceivesResultsInDocumentOrder() throws IOException {
+        final List<String> exited = new ArrayList<>();
+        final Deque<String> entered = new ArrayDeque<>();
+        final List<String> skipped = new ArrayList<>();
+        parse(Fixtures.resource("result.json"), new TestResultVisitor() {
+            @Override
+            public void enter(final String type) {
+                entered.push(type);
+            }
+
+            @Override
+            public void exit(final TestResult result) {
+                assertEquals(entered.pop(), result.type());
+                assertTrue(children(result).isEmpty());
+                exited.add(result.label() + " " + result.resultStatus());
+            }
+
+            @Override
+            public void skip(final String type) {
+                assertEquals(entered.pop(), type);
+                skipped.add(type);
+            }
+        });
+        assertTrue(entered.isEmpty());
+        assertEquals(List.of("TestCaseResult"), skipped);
+        // the invoked Test Step Result is visited as child of the invoking one
+        assertEquals(List.of("A1 FAILED", "A2 PASSED", "IGNORE FAILED", "Step 2 PASSED", "Relabeled step FAILED",
+                "Case 1 FAILED", "Module 1 FAILED", "ETS FAILED"), exited);
+    }
+
+    @Test
+    void keptVisitedResultsStayValid() throws IOException {
+        // more results than fit into one store of the visitor
+        final JSONObject result = new JSONObject(Fixtures.resource("result.json"));
+        final JSONObject step = (JSONObject) result.query("/EtfItemCollection/referencedItems/testTaskResults"
+                + "/TestTaskResult/testModuleResults/TestModuleResult/testCaseResults/TestCaseResult/0"
+                + "/testStepResults/TestStepResult");
+        final JSONObject testAssertionResults = step.getJSONObject("testAssertionResults");
+        final String assertion = testAssertionResults.getJSONArray("TestAssertionResult").getJSONObject(0).toString();
+        final JSONArray assertions = new JSONArray();
+        for (int i = 0; i < 1000; i++) {
+            assertions.put(new JSONObject(assertion).put("duration", i));
+        }
+        testAssertionResults.put("TestAssertionResult", assertions);
+
+        final List<TestResult> kept = new ArrayList<>();
+        parse(result.toString(), new TestResultVisitor() {
+            @Override
+            public void enter(final String type) {}
+
+            @Override
+            public void exit(final TestResult result) {
+                kept.add(result);
+            }
+
+            @Override
+            public void skip(final String type) {}
+        });
+        assertEquals(1005, kept.size());
+        int i = 0;
+        for (final TestResult testResult : kept) {
+            if (testResult instanceof TestAssertionResult) {
+                assertEquals("A1", testResult.label());
+                assertEquals(i++, testResult.duration());
+                assertEquals(List.of("Value 42 at 1.123456789", "Other"),
+                        new ArrayList<>(((TestAssertionResult) testResult).messages()));
+            }
+        }
+        assertEquals(1000, i);
+        assertEquals("ETS", kept.get(1004).label());
+    }
+
+    private static List<String> describe(final TestResult result) {
+        final List<String> lines = new ArrayList<>();
+        String line = result.type() + " " + result.label() + " " + result.resultStatus() + " " + result.duration();
+        if (result instanceof TestStepResult) {
+            line += " " + ((TestStepResult) result).getAttachment();
+        }
+        if (result instanceof TestAssertionResult) {
+            line += " " + ((TestAssertionResult) result).messages();
+        }
+        lines.add(line);
+        for (final TestResult child : children(result)) {
+            lines.addAll(describe(child));
+        }
+        return lines;
+    }
+
+    @Test
+    void parallelResolveMatchesSequential() throws IOException {
+        // enough results to be resolved in parallel
+        final JSONObject result = new JSONObject(Fixtures.resource("result.json"));
+        final JSONArray testCases = (JSONArray) result.query("/EtfItemCollection/referencedItems/testTaskResults"
+                + "/TestTaskResult/testModuleResults/TestModuleResult/testCaseResults/TestCaseResult");
+        final String testCase = testCases.getJSONObject(0).toString();
+        for (int i = 0; i < 300; i++) {
+            testCases.put(new JSONObject(testCase).put("duration", i));
+        }
+        final String json = result.toString();
+
+        final ResultStore sequential = parse(json, null).store();
+        sequential.trim();
+        sequential.resolve(null);
+
+        final ResultStore parallel = parse(json, null).store();
+        parallel.trim();
+        assertTrue(parallel.size() >= 1024);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            parallel.resolve(pool);
+        } finally {
+            pool.shutdown();
+        }
+        final List<String> expected = describe(sequential.testTaskResults().get(0));
+        assertEquals(parallel.size(), expected.size());
+        assertEquals(expected, describe(parallel.testTaskResults().get(0)));
+    }
+
+    @Test
+    void malformedResult() throws IOException {
+        final String json = Fixtures.resource("result.json");
+        assertThrows(JSONException.class, () -> parse(json.substring(0, json.length() / 2), null));
+        assertThrows(JSONException.class, () -> new TestRunResultParser(ctx, resultCtxs,
+                new StringReader(json.replace("\"duration\": 5,", "\"duration\": 5")), null).parse());
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright 2019-2022 interactive instruments GmbH
+ *
+ * Licensed under the EUPL, Version 1.2 or - as soon they will be approved by
+ * the European Commission - subsequent versions of the EUPL (the "Licence");
+ * You may not use this work except in compliance with the Licence.
+ * You may obtain a copy of the Licence at:
+ *
+ * https://joinup.ec.europa.eu/software/page/eupl
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the Licence is distributed on an "AS IS" basis,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Licence for the specific language governing permissions and
+ * limitations under the Licence.
+ */
+package de.interactive_instruments.etf.client.internal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.interactive_instruments.etf.client.ReferenceError;
+import de.interactive_instruments.etf.client.internal.TranslationTemplateBundleCollectionCmd.TranslationTemplateBundleCollection;
+
+/**
+ * @author Jon Herrmann ( herrmann aT interactive-instruments doT de )
+ */
+public class TranslationTemplateBundleTest {
+
+    private InstanceCtx ctx;
+
+    @BeforeEach
+    void setUp() {
+        ctx = Fixtures.ctx(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ctx.close();
+    }
+
+    private static JSONObject bundle(final String eid, final String version, final String parentRef,
+            final String name, final String template) {
+        final JSONObject translationTemplate = new JSONObject().put("language", "en").put("name", name)
+                .put("$", template);
+        final JSONObject bundle = new JSONObject().put("id", eid).put("version", version)
+                .put("translationTemplateCollections", new JSONObject().put("LangTranslationTemplateCollection",
+                        new JSONObject().put("translationTemplates",
+                                new JSONObject().put("TranslationTemplate", translationTemplate))));
+        if (parentRef != null) {
+            bundle.put("parent", new JSONObject().put("ref", parentRef));
+        }
+        return bundle;
+    }
+
+    private static String translate(final TranslationTemplateBundleCollection collection, final String eid,
+            final String name) {
+        return collection.itemById(eid).get().translate("en", name, token -> "x".equals(token) ? "1" : null);
+    }
+
+    @Test
+    void reusedBundlesAreRelinked() {
+        final JSONObject parent = bundle("EIDparent", "1", null, "TR.a", "A");
+        final JSONObject child = bundle("EIDchild", "1", "EIDparent", "TR.b", "B {x}");
+        final TranslationTemplateBundleCollection first = new TranslationTemplateBundleCollection(ctx,
+                Arrays.asList(parent, child), null);
+        assertEquals("A", translate(first, "EIDchild", "TR.a"));
+        assertEquals("B 1", translate(first, "EIDchild", "TR.b"));
+
+        // changed parent, unchanged child
+        final TranslationTemplateBundleCollection second = new TranslationTemplateBundleCollection(ctx,
+                Arrays.asList(bundle("EIDparent", "2", null, "TR.a", "A2"), child), first);
+        assertSame(first.itemById("EIDchild").get(), second.itemById("EIDchild").get());
+        assertNotSame(first.itemById("EIDparent").get(), second.itemById("EIDparent").get());
+        assertEquals("A2", translate(second, "EIDchild", "TR.a"));
+        assertEquals("A", translate(first, "EIDparent", "TR.a"));
+
+        // removed parent
+        final TranslationTemplateBundleCollection third = new TranslationTemplateBundleCollection(ctx,
+                Collections.singletonList(child), second);
+        assertSame(first.itemById("EIDchild").get(), third.itemById("EIDchild").get());
+        assertEquals("B 1", translate(third, "EIDchild", "TR.b"));
+        assertThrows(ReferenceError.class, () -> translate(third, "EIDchild", "TR.a"));
+    }
+}
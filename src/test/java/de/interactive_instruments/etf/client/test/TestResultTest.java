@@ -22,7 +22,11 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import org.junit.jupiter.api.Test;
 
@@ -94,4 +98,41 @@ public class TestResultTest {
         }
     }
 
+    @Test
+    void startTestAsync() throws RemoteInvocationException, MalformedURLException, ExecutionException,
+            InterruptedException, TimeoutException {
+        final EtfEndpoint etfEndpoint = Constants.ETF_ENDPOINT;
+
+        final EtsCollection metadataTestSuites = etfEndpoint.executableTestSuites()
+                .itemsByTag(etfEndpoint.tags().itemById(TagTest.METADATA_TAG_ID).get());
+        final AdHocTestObject testObject = etfEndpoint.newAdHocTestObject().fromDataSet(new URL(METADATA_TEST_URL));
+
+        final TestRunResult result = metadataTestSuites.executeAsync(testObject, null)
+                .toCompletableFuture().get(30, TimeUnit.MINUTES);
+        try {
+            assertNotNull(result);
+            assertFalse(result.testTaskResults().isEmpty());
+            for (final TestResult testResult : result) {
+                assertNotNull(testResult.label());
+                assertNotSame(testResult.resultStatus(), ResultStatus.OTHER);
+            }
+        } finally {
+            result.delete();
+        }
+    }
+
+    @Test
+    void cancelTestAsync() throws RemoteInvocationException, MalformedURLException {
+        final EtfEndpoint etfEndpoint = Constants.ETF_ENDPOINT;
+
+        final EtsCollection metadataTestSuites = etfEndpoint.executableTestSuites()
+                .itemsByTag(etfEndpoint.tags().itemById(TagTest.METADATA_TAG_ID).get());
+        final AdHocTestObject testObject = etfEndpoint.newAdHocTestObject().fromDataSet(new URL(METADATA_TEST_URL));
+
+        final CompletableFuture<TestRunResult> future = metadataTestSuites.executeAsync(testObject, null)
+                .toCompletableFuture();
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertThrows(CancellationException.class, () -> future.get(30, TimeUnit.SECONDS));
+    }
 }
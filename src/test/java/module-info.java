@@ -1,5 +0,0 @@
-module etf.client.test {
-	requires etf.client;
-
-	requires org.junit.jupiter.api;
-}